@@ -0,0 +1,155 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the steps of the BOM generation over synthetic artifact sets.
+ * Every operation processes the whole artifact set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BomGenerationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int artifactCount;
+
+    @Param({"10"})
+    int artifactsPerGroup;
+
+    @Param({"0", "100"})
+    int exclusionRules;
+
+    private List<Artifact> artifacts;
+
+    private BomGenerator generator;
+
+    private BomExclusionIndex bomExclusionIndex;
+
+    private PomDependencyVersionsTransformer versionsTransformer;
+
+    private CoordinatePool coordinatePool;
+
+    private BuildBomMojo.ModelWriter modelWriter;
+
+    private Model model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        artifacts = SyntheticArtifacts.createSortedArtifacts(artifactCount, artifactsPerGroup);
+
+        BomDefinition definition = new BomDefinition();
+        definition.setBomGroupId("org.example");
+        definition.setBomArtifactId("benchmark-bom");
+        definition.setBomVersion("1.0");
+        definition.setAddVersionProperties(true);
+        definition.setDependencyExclusions(SyntheticArtifacts.createDependencyExclusions(exclusionRules));
+        definition.setExclusions(SyntheticArtifacts.createBomExclusions(exclusionRules));
+
+        SystemStreamLog log = new SystemStreamLog();
+        versionsTransformer = new PomDependencyVersionsTransformer();
+        modelWriter = new BuildBomMojo.ModelWriter();
+        generator = new BomGenerator(definition, modelWriter, versionsTransformer, new StreamingBomWriter(), log);
+        coordinatePool = new CoordinatePool();
+        generator.setCoordinatePool(coordinatePool);
+        bomExclusionIndex = BomExclusionIndex.compile(definition.getExclusions(), log);
+
+        model = addDependencyManagement();
+    }
+
+    @Benchmark
+    public Model addDependencyManagement() {
+        List<Artifact> includedArtifacts = generator.filterArtifacts(artifacts);
+        Model pomModel = generator.initializeModel();
+        pomModel.setDependencyManagement(generator.createDependencyManagement(includedArtifacts));
+        return generator.addVersionProperties(includedArtifacts, pomModel);
+    }
+
+    @Benchmark
+    public int isExcludedDependency() {
+        int excluded = 0;
+        for (Artifact artifact : artifacts) {
+            if (generator.isExcludedDependency(artifact)) {
+                excluded++;
+            }
+        }
+        return excluded;
+    }
+
+    @Benchmark
+    public void applyExclusions(Blackhole blackhole) {
+        for (Artifact artifact : artifacts) {
+            Dependency dependency = new Dependency();
+            bomExclusionIndex.apply(artifact.getGroupId(), artifact.getArtifactId(), dependency);
+            blackhole.consume(dependency);
+        }
+    }
+
+    @Benchmark
+    public Model transformPomModel() {
+        return versionsTransformer.transformPomModel(model, false, coordinatePool);
+    }
+
+    @Benchmark
+    public long writeModel() throws IOException {
+        CountingWriter writer = new CountingWriter();
+        modelWriter.writeModel(model, writer);
+        return writer.count;
+    }
+
+    /**
+     * An in-memory sink, so that the benchmark does not measure the disk.
+     */
+    private static final class CountingWriter extends Writer {
+
+        private long count;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
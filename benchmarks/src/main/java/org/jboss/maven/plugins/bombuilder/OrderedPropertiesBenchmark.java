@@ -0,0 +1,68 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks filling {@link OrderedProperties} with version properties, once
+ * with new keys only and once putting every key twice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderedPropertiesBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int propertyCount;
+
+    private String[] keys;
+
+    private String[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new String[propertyCount];
+        values = new String[propertyCount];
+        for (int i = 0; i < propertyCount; i++) {
+            keys[i] = "version.org.example.group" + (i / 10) + ".artifact-" + i;
+            values[i] = "1." + i;
+        }
+    }
+
+    @Benchmark
+    public OrderedProperties put() {
+        OrderedProperties properties = new OrderedProperties();
+        for (int i = 0; i < keys.length; i++) {
+            properties.put(keys[i], values[i]);
+        }
+        return properties;
+    }
+
+    @Benchmark
+    public OrderedProperties putTwice() {
+        OrderedProperties properties = new OrderedProperties();
+        for (int i = 0; i < keys.length; i++) {
+            properties.put(keys[i], values[i]);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            properties.put(keys[i], values[i]);
+        }
+        return properties;
+    }
+
+}
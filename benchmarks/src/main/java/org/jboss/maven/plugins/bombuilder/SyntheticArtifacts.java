@@ -0,0 +1,73 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+
+/**
+ * Generates reproducible artifact sets and exclusion rules shaped like the
+ * resolved dependencies of a large project.
+ *
+ * The artifacts are spread over groups of <code>artifactsPerGroup</code>
+ * artifacts.  Most groups share one version, every fifth group has a version
+ * per artifact.  Half of the exclusion rules match some of the artifacts, the
+ * others match none, and the rules are a mix of exact ids, prefixes and globs.
+ */
+class SyntheticArtifacts {
+
+    private SyntheticArtifacts() {
+    }
+
+    static List<Artifact> createSortedArtifacts(int artifactCount, int artifactsPerGroup) {
+        DefaultArtifactHandler jarHandler = new DefaultArtifactHandler("jar");
+        List<Artifact> artifacts = new ArrayList<>(artifactCount);
+        for (int i = 0; i < artifactCount; i++) {
+            int group = i / artifactsPerGroup;
+            String version = group % 5 == 0 ? "1." + group + "." + (i % 7) : "2." + group;
+            artifacts.add(new DefaultArtifact(groupId(group), "artifact-" + i, version, "compile", "jar", null, jarHandler));
+        }
+        Collections.sort(artifacts);
+        return artifacts;
+    }
+
+    static List<DependencyExclusion> createDependencyExclusions(int ruleCount) {
+        List<DependencyExclusion> exclusions = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            String groupId = i % 2 == 0 ? groupId(i * 10) : "com.unused.group" + i;
+            switch (i % 3) {
+                case 0:
+                    exclusions.add(new DependencyExclusion(groupId, "artifact-" + i));
+                    break;
+                case 1:
+                    exclusions.add(new DependencyExclusion(groupId + "*", "*"));
+                    break;
+                default:
+                    exclusions.add(new DependencyExclusion(groupId, "*-" + i + "?"));
+                    break;
+            }
+        }
+        return exclusions;
+    }
+
+    static List<BomExclusion> createBomExclusions(int ruleCount) {
+        List<BomExclusion> exclusions = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            BomExclusion exclusion = new BomExclusion();
+            exclusion.setDependencyGroupId(i % 2 == 0 ? groupId(i * 3) : "com.unused.group" + i);
+            exclusion.setDependencyArtifactId(i % 3 == 0 ? "*" : "artifact-" + i);
+            exclusion.setExclusionGroupId("org.excluded");
+            exclusion.setExclusionArtifactId("excluded-" + i);
+            exclusions.add(exclusion);
+        }
+        return exclusions;
+    }
+
+    private static String groupId(int group) {
+        return "org.example.group" + group;
+    }
+
+}
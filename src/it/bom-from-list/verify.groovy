@@ -0,0 +1,12 @@
+ File file = new File(basedir, "target/bom-pom.xml")
+ def project = new XmlSlurper().parse(file)
+ def dependencies = project.dependencyManagement.dependencies.dependency.collect {
+    def id = it.groupId.text() + ":" + it.artifactId.text() + ":" + it.version.text()
+    it.classifier.text() ? id + ":" + it.classifier.text() : id
+ }
+ // the highest version of junit, its sources, and no excluded artifact
+ def expected = ["junit:junit:4.10:sources", "junit:junit:4.11", "org.hamcrest:hamcrest-core:1.1"]
+ if (dependencies != expected) {
+    println("bom-pom.xml manages " + dependencies + " instead of " + expected)
+    return false
+ }
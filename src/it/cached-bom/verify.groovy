@@ -0,0 +1,28 @@
+ File file = new File(basedir, "target/bom-pom.xml")
+ def project = new XmlSlurper().parse(file)
+ def dependencies = project.dependencyManagement.dependencies.dependency.collect {
+    it.groupId.text() + ":" + it.artifactId.text() + ":" + it.version.text()
+ }
+ def expected = ["junit:junit:4.10", "org.hamcrest:hamcrest-core:1.1"]
+ if (dependencies != expected) {
+    println("bom-pom.xml manages " + dependencies + " instead of " + expected)
+    return false
+ }
+
+ def cacheFiles = new File(basedir, "resolution-cache").listFiles()
+ if (cacheFiles == null || cacheFiles.length != 1) {
+    println("resolution-cache does not hold exactly one resolution")
+    return false
+ }
+ def lines = cacheFiles[0].readLines('UTF-8')
+ if (lines != ["junit:junit:jar:4.10:compile", "org.hamcrest:hamcrest-core:jar:1.1:compile"]) {
+    println(cacheFiles[0].absolutePath + " holds " + lines)
+    return false
+ }
+
+ // only the first, cold, build resolves the dependencies
+ def resolutions = new File(basedir, "build.log").getText('UTF-8').count("Resolving the dependencies of")
+ if (resolutions != 1) {
+    println("The dependencies were resolved " + resolutions + " times instead of once")
+    return false
+ }
@@ -0,0 +1,22 @@
+ File file = new File(basedir, "target/bom-pom.xml")
+ if (!file.isFile()) {
+    println("bom-pom.xml was not written in the top level project")
+    return false
+ }
+ for (module in ["module-a", "module-b"]) {
+    if (new File(basedir, module + "/target/bom-pom.xml").exists()) {
+       println("bom-pom.xml was written in " + module)
+       return false
+    }
+ }
+
+ def project = new XmlSlurper().parse(file)
+ def dependencies = project.dependencyManagement.dependencies.dependency.collect {
+    it.groupId.text() + ":" + it.artifactId.text() + ":" + it.version.text()
+ }
+ // the highest version resolved by any module of the reactor
+ def expected = ["junit:junit:4.11", "org.hamcrest:hamcrest-core:1.3"]
+ if (dependencies != expected) {
+    println("bom-pom.xml manages " + dependencies + " instead of " + expected)
+    return false
+ }
@@ -0,0 +1,266 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+
+/**
+ * Reads and writes artifact coordinate lists, one artifact per line as
+ * <code>groupId:artifactId[:type[:classifier]]:version</code>.  The type
+ * defaults to jar.  Blank lines and lines starting with # are ignored.
+ *
+ * Lists of resolved artifacts also keep their scope, one artifact per line as
+ * <code>groupId:artifactId:type[:classifier]:version:scope</code>, the way
+ * the dependency plugin lists them.
+ */
+class ArtifactCoordinates {
+
+    /**
+     * The version of the format of resolved artifact lists, to be changed
+     * with it so that the lists written in another format are not read.
+     */
+    static final int RESOLVED_FORMAT_VERSION = 2;
+
+    private static final String DEFAULT_TYPE = "jar";
+
+    private ArtifactCoordinates() {
+    }
+
+    /**
+     * Returns the coordinates of the artifact, always including its type.
+     */
+    static String format(Artifact artifact) {
+        StringBuilder line = new StringBuilder();
+        line.append(artifact.getGroupId()).append(':').append(artifact.getArtifactId()).append(':')
+                .append(artifact.getType() == null ? DEFAULT_TYPE : artifact.getType());
+        if (artifact.getClassifier() != null && !artifact.getClassifier().isEmpty()) {
+            line.append(':').append(artifact.getClassifier());
+        }
+        return line.append(':').append(artifact.getVersion()).toString();
+    }
+
+    /**
+     * Writes a list of resolved artifacts, keeping their scope.  An artifact
+     * without a scope has the compile scope.
+     */
+    static void writeResolved(File file, final List<Artifact> artifacts) throws IOException {
+        OutputFiles.writeIfChanged(file, new OutputFiles.Content() {
+            @Override
+            public void writeTo(Writer writer) throws IOException {
+                for (Artifact artifact : artifacts) {
+                    writer.write(format(artifact));
+                    writer.write(':');
+                    writer.write(artifact.getScope() == null ? Artifact.SCOPE_COMPILE : artifact.getScope());
+                    writer.write('\n');
+                }
+            }
+        });
+    }
+
+    /**
+     * The coordinates of one line of a list, compared like
+     * {@link Artifact#compareTo(Object) artifacts}.
+     */
+    static final class Coordinate implements Comparable<Coordinate> {
+
+        private final String groupId;
+
+        private final String artifactId;
+
+        private final String type;
+
+        private final String classifier;
+
+        private final String version;
+
+        Coordinate(String groupId, String artifactId, String type, String classifier, String version) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.type = type;
+            this.classifier = classifier;
+            this.version = version;
+        }
+
+        String getGroupId() {
+            return groupId;
+        }
+
+        String getArtifactId() {
+            return artifactId;
+        }
+
+        String getType() {
+            return type;
+        }
+
+        /**
+         * The classifier, or <code>null</code> if there is none.
+         */
+        String getClassifier() {
+            return classifier;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        /**
+         * Whether both coordinates are managed by the same dependency
+         * management entry, differing at most by their version.
+         */
+        boolean hasSameManagementKey(Coordinate other) {
+            return groupId.equals(other.groupId) && artifactId.equals(other.artifactId) && type.equals(other.type)
+                    && (classifier == null ? other.classifier == null : classifier.equals(other.classifier));
+        }
+
+        @Override
+        public int compareTo(Coordinate other) {
+            int result = groupId.compareTo(other.groupId);
+            if (result == 0) {
+                result = artifactId.compareTo(other.artifactId);
+            }
+            if (result == 0) {
+                result = type.compareTo(other.type);
+            }
+            if (result == 0) {
+                if (classifier == null) {
+                    result = other.classifier == null ? 0 : 1;
+                } else {
+                    result = other.classifier == null ? -1 : classifier.compareTo(other.classifier);
+                }
+            }
+            if (result == 0) {
+                // only reached for the versions of one artifact, which are not worth caching
+                result = new DefaultArtifactVersion(version).compareTo(new DefaultArtifactVersion(other.version));
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ":" + artifactId + ":" + type + (classifier == null ? "" : ":" + classifier) + ":" + version;
+        }
+    }
+
+    /**
+     * Receives the coordinates of a list one line at a time.
+     */
+    interface Handler {
+
+        void handle(Coordinate coordinate) throws IOException;
+    }
+
+    /**
+     * Reads the artifacts of a list of resolved artifacts, in the order of
+     * the file, with their scope.
+     *
+     * @throws IOException if the file cannot be read or has an invalid line
+     */
+    static List<Artifact> readResolved(File file) throws IOException {
+        final List<Artifact> artifacts = new ArrayList<>();
+        final Map<String, ArtifactHandler> handlers = new HashMap<>();
+        final CoordinatePool pool = new CoordinatePool();
+        readLines(file, 5, 6, "groupId:artifactId:type[:classifier]:version:scope", new LineHandler() {
+            @Override
+            public void handle(String[] fields) {
+                String type = pool.share(fields[2]);
+                ArtifactHandler handler = handlers.get(type);
+                if (handler == null) {
+                    handler = new DefaultArtifactHandler(type);
+                    handlers.put(type, handler);
+                }
+                artifacts.add(new DefaultArtifact(pool.share(fields[0]), fields[1], pool.share(fields[fields.length - 2]),
+                        pool.share(fields[fields.length - 1]), type, fields.length > 5 ? pool.share(fields[3]) : null,
+                        handler));
+            }
+        });
+        return artifacts;
+    }
+
+    /**
+     * Streams the coordinates of a list, in the order of the file, to the
+     * handler.  Only the current line is held in memory.
+     *
+     * @throws IOException if the file cannot be read or has an invalid line
+     */
+    static void read(File file, Handler handler) throws IOException {
+        read(file, new CoordinatePool(), handler);
+    }
+
+    /**
+     * Streams the coordinates of a list like {@link #read(File, Handler)}.
+     * The group ids, types, classifiers and versions, which repeat, are
+     * shared through the pool.
+     *
+     * @throws IOException if the file cannot be read or has an invalid line
+     */
+    static void read(File file, final CoordinatePool pool, final Handler handler) throws IOException {
+        readLines(file, 3, 5, "groupId:artifactId[:type[:classifier]]:version", new LineHandler() {
+            @Override
+            public void handle(String[] fields) throws IOException {
+                String type = fields.length > 3 ? fields[2] : DEFAULT_TYPE;
+                String classifier = fields.length > 4 ? fields[3] : null;
+                handler.handle(new Coordinate(pool.share(fields[0]), fields[1], pool.share(type), pool.share(classifier),
+                        pool.share(fields[fields.length - 1])));
+            }
+        });
+    }
+
+    /**
+     * Receives the fields of a list one line at a time.
+     */
+    private interface LineHandler {
+
+        void handle(String[] fields) throws IOException;
+    }
+
+    /**
+     * Splits the lines of a list into their fields, skipping the blank lines
+     * and the comments.
+     *
+     * @throws IOException if the file cannot be read or a line does not have
+     *                     the expected number of non-empty fields
+     */
+    private static void readLines(File file, int minFields, int maxFields, String expected, LineHandler handler)
+            throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(":", -1);
+                if (fields.length < minFields || fields.length > maxFields || hasEmptyField(fields)) {
+                    throw new IOException(file + ":" + lineNumber + ": expected " + expected + " but found " + line);
+                }
+                handler.handle(fields);
+            }
+        }
+    }
+
+    private static boolean hasEmptyField(String[] fields) {
+        for (String field : fields) {
+            if (field.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,161 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+
+/**
+ * The orders in which the artifacts are added to a BOM.
+ *
+ * Sorting a list of artifacts with {@link Artifact#compareTo(Artifact)}
+ * fetches their fields again on each comparison and parses both versions
+ * whenever two artifacts differ only by version.  An order instead creates
+ * one key per artifact holding the fields it compares, and the version parsed
+ * at most once, then sorts the keys.  The sort is stable, so {@link #GA}
+ * orders the artifacts exactly like {@link Artifact#compareTo(Artifact)}.
+ */
+enum ArtifactOrder {
+
+    /** By groupId, artifactId, type, classifier and version */
+    GA,
+
+    /** By groupId, the groupIds with the most artifacts first, then like {@link #GA} */
+    GROUP_SIZE,
+
+    /** By scope, compile first and test last, then like {@link #GA} */
+    SCOPE;
+
+    /**
+     * The known scopes in their order, an artifact without a scope having the
+     * default compile scope.  Other scopes come last, by name.
+     */
+    private static final List<String> SCOPES = Arrays.asList(Artifact.SCOPE_COMPILE, Artifact.SCOPE_PROVIDED,
+            Artifact.SCOPE_RUNTIME, Artifact.SCOPE_SYSTEM, Artifact.SCOPE_TEST);
+
+    static ArtifactOrder parse(String order) {
+        try {
+            return valueOf(order.trim().replace('-', '_').toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    String getName() {
+        return name().toLowerCase(Locale.ENGLISH).replace('_', '-');
+    }
+
+    /**
+     * Sorts the artifacts in place.
+     */
+    void sort(List<Artifact> artifacts) {
+        Map<String, int[]> groupSizes = this == GROUP_SIZE ? countGroups(artifacts) : null;
+        SortKey[] keys = new SortKey[artifacts.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Artifact artifact = artifacts.get(i);
+            SortKey key = new SortKey(artifact);
+            if (groupSizes != null) {
+                key.rank = -groupSizes.get(artifact.getGroupId())[0];
+            } else if (this == SCOPE) {
+                String scope = artifact.getScope() == null ? Artifact.SCOPE_COMPILE : artifact.getScope();
+                int rank = SCOPES.indexOf(scope);
+                key.rank = rank < 0 ? SCOPES.size() : rank;
+                key.rankName = rank < 0 ? scope : null;
+            }
+            keys[i] = key;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            artifacts.set(i, keys[i].artifact);
+        }
+    }
+
+    private static Map<String, int[]> countGroups(List<Artifact> artifacts) {
+        Map<String, int[]> groupSizes = new HashMap<>();
+        for (Artifact artifact : artifacts) {
+            int[] size = groupSizes.get(artifact.getGroupId());
+            if (size == null) {
+                size = new int[1];
+                groupSizes.put(artifact.getGroupId(), size);
+            }
+            size[0]++;
+        }
+        return groupSizes;
+    }
+
+    /**
+     * The fields of an artifact compared by an order: first the rank the
+     * order gives to the artifact, then the fields compared by
+     * {@link Artifact#compareTo(Artifact)}, in the same way.
+     */
+    private static final class SortKey implements Comparable<SortKey> {
+
+        private final Artifact artifact;
+
+        private final String groupId;
+
+        private final String artifactId;
+
+        private final String type;
+
+        private final String classifier;
+
+        private int rank;
+
+        private String rankName;
+
+        private DefaultArtifactVersion version;
+
+        private SortKey(Artifact artifact) {
+            this.artifact = artifact;
+            groupId = artifact.getGroupId();
+            artifactId = artifact.getArtifactId();
+            type = artifact.getType();
+            classifier = artifact.getClassifier();
+        }
+
+        /**
+         * The parsed version, only needed when the other fields are equal.
+         */
+        private DefaultArtifactVersion getVersion() {
+            if (version == null) {
+                version = new DefaultArtifactVersion(artifact.getVersion());
+            }
+            return version;
+        }
+
+        @Override
+        public int compareTo(SortKey other) {
+            int result = Integer.compare(rank, other.rank);
+            if (result == 0 && rankName != null) {
+                result = rankName.compareTo(other.rankName);
+            }
+            if (result == 0) {
+                result = groupId.compareTo(other.groupId);
+            }
+            if (result == 0) {
+                result = artifactId.compareTo(other.artifactId);
+            }
+            if (result == 0) {
+                result = type.compareTo(other.type);
+            }
+            if (result == 0) {
+                // an artifact with a classifier comes before the one without
+                if (classifier == null) {
+                    result = other.classifier == null ? 0 : 1;
+                } else {
+                    result = other.classifier == null ? -1 : classifier.compareTo(other.classifier);
+                }
+            }
+            if (result == 0) {
+                result = getVersion().compareTo(other.getVersion());
+            }
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A class to represent the configuration of one BOM generated by the BOM
+ * builder.  Several definitions can be generated from a single dependency
+ * resolution.
+ */
+public class BomDefinition {
+
+    private String bomGroupId;
+
+    private String bomArtifactId;
+
+    private String bomVersion;
+
+    private String bomName;
+
+    private String bomDescription;
+
+    private String outputFilename;
+
+    private List<BomExclusion> exclusions;
+
+    private List<DependencyExclusion> dependencyExclusions;
+
+    private boolean addVersionProperties;
+
+    private boolean usePropertiesForVersion;
+
+    private boolean shareVersionProperties;
+
+    private File previousBom;
+
+    public String getBomGroupId() {
+        return bomGroupId;
+    }
+
+    public void setBomGroupId(String bomGroupId) {
+        this.bomGroupId = bomGroupId;
+    }
+
+    public String getBomArtifactId() {
+        return bomArtifactId;
+    }
+
+    public void setBomArtifactId(String bomArtifactId) {
+        this.bomArtifactId = bomArtifactId;
+    }
+
+    public String getBomVersion() {
+        return bomVersion;
+    }
+
+    public void setBomVersion(String bomVersion) {
+        this.bomVersion = bomVersion;
+    }
+
+    public String getBomName() {
+        return bomName;
+    }
+
+    public void setBomName(String bomName) {
+        this.bomName = bomName;
+    }
+
+    public String getBomDescription() {
+        return bomDescription;
+    }
+
+    public void setBomDescription(String bomDescription) {
+        this.bomDescription = bomDescription;
+    }
+
+    /**
+     * The output file name, relative to the build directory.  Defaults to
+     * <code>&lt;bomArtifactId&gt;-pom.xml</code>.
+     */
+    public String getOutputFilename() {
+        return outputFilename != null ? outputFilename : bomArtifactId + "-pom.xml";
+    }
+
+    public void setOutputFilename(String outputFilename) {
+        this.outputFilename = outputFilename;
+    }
+
+    public List<BomExclusion> getExclusions() {
+        return exclusions;
+    }
+
+    public void setExclusions(List<BomExclusion> exclusions) {
+        this.exclusions = exclusions;
+    }
+
+    public List<DependencyExclusion> getDependencyExclusions() {
+        return dependencyExclusions;
+    }
+
+    public void setDependencyExclusions(List<DependencyExclusion> dependencyExclusions) {
+        this.dependencyExclusions = dependencyExclusions;
+    }
+
+    public boolean isAddVersionProperties() {
+        return addVersionProperties;
+    }
+
+    public void setAddVersionProperties(boolean addVersionProperties) {
+        this.addVersionProperties = addVersionProperties;
+    }
+
+    public boolean isUsePropertiesForVersion() {
+        return usePropertiesForVersion;
+    }
+
+    public void setUsePropertiesForVersion(boolean usePropertiesForVersion) {
+        this.usePropertiesForVersion = usePropertiesForVersion;
+    }
+
+    /**
+     * Whether groupIds with the same version under a common groupId prefix
+     * share one version property, see {@link VersionPropertyPlanner}.
+     */
+    public boolean isShareVersionProperties() {
+        return shareVersionProperties;
+    }
+
+    public void setShareVersionProperties(boolean shareVersionProperties) {
+        this.shareVersionProperties = shareVersionProperties;
+    }
+
+    /**
+     * A previous version of the BOM to report the changes against, or
+     * <code>null</code>.
+     */
+    public File getPreviousBom() {
+        return previousBom;
+    }
+
+    public void setPreviousBom(File previousBom) {
+        this.previousBom = previousBom;
+    }
+
+    @Override
+    public String toString() {
+        return bomGroupId + ":" + bomArtifactId + ":" + bomVersion;
+    }
+
+}
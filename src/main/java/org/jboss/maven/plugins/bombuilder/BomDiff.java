@@ -0,0 +1,497 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.codehaus.plexus.util.ReaderFactory;
+import org.codehaus.plexus.util.xml.pull.MXParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * The changes between a previous BOM and the BOM being generated: the managed
+ * dependencies added, removed, upgraded, downgraded or changed to an
+ * equivalent version, and the properties added, removed or changed.
+ *
+ * Both BOMs list their dependencies sorted by groupId and artifactId, so they
+ * are compared in a single merge-join pass: the previous BOM is read one
+ * dependency at a time with a pull parser, and only the dependencies of one
+ * groupId:artifactId (one per type and classifier) are held at a time on each
+ * side.  Each change is written to the report as soon as it is found, so the
+ * memory used does not grow with the number of changes either.  Versions
+ * written as a reference to a property of the previous BOM are resolved with
+ * the properties read before them, which POMs list before their dependency
+ * management.
+ */
+class BomDiff {
+
+    enum Change {
+        ADDED, REMOVED, UPGRADED, DOWNGRADED, CHANGED;
+
+        private final String label = name().toLowerCase(Locale.ENGLISH);
+    }
+
+    private final Writer report;
+
+    private final int[] counts = new int[Change.values().length];
+
+    private int propertyChangeCount;
+
+    /**
+     * Whether no change was written to the current array of the report.
+     */
+    private boolean emptyArray;
+
+    private BomDiff(Writer report) {
+        this.report = report;
+    }
+
+    /**
+     * Compares the previous BOM with the dependencies and properties of the
+     * BOM being generated, only counting the changes.
+     *
+     * @see #compare(File, Iterator, Properties, Writer, String)
+     */
+    static BomDiff compare(File previousBom, Iterator<Entry> current, Properties currentProperties) throws IOException {
+        return compare(previousBom, current, currentProperties, null, null);
+    }
+
+    /**
+     * Compares the previous BOM with the dependencies and properties of the
+     * BOM being generated, writing each change to the JSON report as soon as
+     * it is found.  The summary is written last, once all the changes are
+     * counted.
+     *
+     * @param current the dependencies of the new BOM, sorted by groupId and
+     *                artifactId
+     * @param report  the writer of the report, or <code>null</code> to only
+     *                count the changes
+     * @throws UnsortedBomException if either side is not sorted
+     * @throws IOException if the previous BOM cannot be parsed
+     */
+    static BomDiff compare(File previousBom, Iterator<Entry> current, Properties currentProperties, Writer report,
+            String bom) throws IOException {
+        BomDiff diff = new BomDiff(report);
+        try (Reader reader = ReaderFactory.newXmlReader(previousBom)) {
+            PreviousBom previous = new PreviousBom(reader);
+            diff.write("{\n");
+            diff.write("  \"bom\": " + BomMetrics.quote(bom) + ",\n");
+            diff.write("  \"previousBom\": " + BomMetrics.quote(previousBom.getPath()) + ",\n");
+            diff.startArray("dependencies");
+            diff.compareDependencies(new Group(previousBom.toString(), previous), new Group("the new BOM", current));
+            diff.endArray();
+            diff.startArray("properties");
+            diff.compareProperties(previous.properties, currentProperties);
+            diff.endArray();
+            diff.writeSummary();
+            diff.write("}\n");
+        } catch (XmlPullParserException e) {
+            throw new IOException("Unable to parse " + previousBom + ": " + e.getMessage(), e);
+        }
+        return diff;
+    }
+
+    /**
+     * Compares the BOMs like {@link #compare(File, Iterator, Properties,
+     * Writer, String)}, writing the report to a file, which is left untouched
+     * when it has the same content, or when the comparison fails.
+     *
+     * @param recorder the recorder of the written bytes, or <code>null</code>
+     */
+    static BomDiff write(File reportFile, final String bom, final File previousBom, final Iterator<Entry> current,
+            final Properties currentProperties, OutputFiles.Recorder recorder) throws IOException {
+        final BomDiff[] diff = new BomDiff[1];
+        OutputFiles.writeIfChanged(reportFile, new OutputFiles.Content() {
+            @Override
+            public void writeTo(Writer writer) throws IOException {
+                diff[0] = compare(previousBom, current, currentProperties, writer, bom);
+            }
+        }, recorder);
+        return diff[0];
+    }
+
+    int getCount(Change change) {
+        return counts[change.ordinal()];
+    }
+
+    int getPropertyChangeCount() {
+        return propertyChangeCount;
+    }
+
+    String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Change change : Change.values()) {
+            summary.append(counts[change.ordinal()]).append(' ').append(change.label).append(", ");
+        }
+        return summary.append(propertyChangeCount).append(" properties changed").toString();
+    }
+
+    private void write(String json) throws IOException {
+        if (report != null) {
+            report.write(json);
+        }
+    }
+
+    private void startArray(String name) throws IOException {
+        write("  " + BomMetrics.quote(name) + ": [");
+        emptyArray = true;
+    }
+
+    private void writeElement(String element) throws IOException {
+        write(emptyArray ? "\n    " : ",\n    ");
+        write(element);
+        emptyArray = false;
+    }
+
+    private void endArray() throws IOException {
+        write(emptyArray ? "],\n" : "\n  ],\n");
+    }
+
+    private void writeSummary() throws IOException {
+        StringBuilder summary = new StringBuilder("  \"summary\": {");
+        String separator = " ";
+        for (Change change : Change.values()) {
+            summary.append(separator).append(BomMetrics.quote(change.label)).append(": ").append(counts[change.ordinal()]);
+            separator = ", ";
+        }
+        write(summary.append(", \"properties\": ").append(propertyChangeCount).append(" }\n").toString());
+    }
+
+    private void compareDependencies(Group previous, Group current) throws IOException {
+        boolean hasPrevious = previous.advance();
+        boolean hasCurrent = current.advance();
+        while (hasPrevious || hasCurrent) {
+            int order = !hasPrevious ? 1 : !hasCurrent ? -1 : compareIds(previous.first(), current.first());
+            if (order < 0) {
+                for (Entry entry : previous.entries) {
+                    add(Change.REMOVED, entry, null);
+                }
+                hasPrevious = previous.advance();
+            } else if (order > 0) {
+                for (Entry entry : current.entries) {
+                    add(Change.ADDED, null, entry);
+                }
+                hasCurrent = current.advance();
+            } else {
+                compareGroups(previous.entries, current.entries);
+                hasPrevious = previous.advance();
+                hasCurrent = current.advance();
+            }
+        }
+    }
+
+    /**
+     * Compares the dependencies of one groupId:artifactId, matching them by
+     * type and classifier.
+     */
+    private void compareGroups(List<Entry> previous, List<Entry> current) throws IOException {
+        boolean[] matched = new boolean[current.size()];
+        for (Entry previousEntry : previous) {
+            int match = -1;
+            for (int i = 0; i < current.size() && match < 0; i++) {
+                if (!matched[i] && previousEntry.hasSameTypeAndClassifier(current.get(i))) {
+                    match = i;
+                }
+            }
+            if (match < 0) {
+                add(Change.REMOVED, previousEntry, null);
+                continue;
+            }
+            matched[match] = true;
+            Entry currentEntry = current.get(match);
+            if (!previousEntry.version.equals(currentEntry.version)) {
+                int order = new ComparableVersion(currentEntry.version).compareTo(new ComparableVersion(previousEntry.version));
+                add(order > 0 ? Change.UPGRADED : order < 0 ? Change.DOWNGRADED : Change.CHANGED, previousEntry, currentEntry);
+            }
+        }
+        for (int i = 0; i < current.size(); i++) {
+            if (!matched[i]) {
+                add(Change.ADDED, null, current.get(i));
+            }
+        }
+    }
+
+    private void add(Change change, Entry previous, Entry current) throws IOException {
+        counts[change.ordinal()]++;
+        Entry entry = current != null ? current : previous;
+        writeElement("{ \"change\": " + BomMetrics.quote(change.label)
+                + ", \"groupId\": " + BomMetrics.quote(entry.groupId)
+                + ", \"artifactId\": " + BomMetrics.quote(entry.artifactId)
+                + ", \"type\": " + BomMetrics.quote(entry.type)
+                + ", \"classifier\": " + BomMetrics.quote(entry.classifier)
+                + ", \"previousVersion\": " + BomMetrics.quote(previous == null ? null : previous.version)
+                + ", \"version\": " + BomMetrics.quote(current == null ? null : current.version) + " }");
+    }
+
+    private void compareProperties(Map<String, String> previous, Properties current) throws IOException {
+        for (Map.Entry<String, String> property : previous.entrySet()) {
+            String value = current.getProperty(property.getKey());
+            if (value == null) {
+                addProperty(Change.REMOVED, property.getKey(), property.getValue(), null);
+            } else if (!value.equals(property.getValue())) {
+                addProperty(Change.CHANGED, property.getKey(), property.getValue(), value);
+            }
+        }
+        for (Object key : current.keySet()) {
+            String name = (String) key;
+            if (!previous.containsKey(name)) {
+                addProperty(Change.ADDED, name, null, current.getProperty(name));
+            }
+        }
+    }
+
+    private void addProperty(Change change, String name, String previousValue, String value) throws IOException {
+        propertyChangeCount++;
+        writeElement("{ \"change\": " + BomMetrics.quote(change.label)
+                + ", \"name\": " + BomMetrics.quote(name)
+                + ", \"previousValue\": " + BomMetrics.quote(previousValue)
+                + ", \"value\": " + BomMetrics.quote(value) + " }");
+    }
+
+    private static int compareIds(Entry entry1, Entry entry2) {
+        int result = entry1.groupId.compareTo(entry2.groupId);
+        if (result == 0) {
+            result = entry1.artifactId.compareTo(entry2.artifactId);
+        }
+        return result;
+    }
+
+    /**
+     * A managed dependency of a BOM.
+     */
+    static final class Entry {
+
+        private final String groupId;
+
+        private final String artifactId;
+
+        private final String type;
+
+        private final String classifier;
+
+        private final String version;
+
+        /**
+         * The type defaults to jar, and an empty classifier is no classifier.
+         */
+        Entry(String groupId, String artifactId, String type, String classifier, String version) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.type = type == null || type.isEmpty() ? "jar" : type;
+            this.classifier = classifier == null || classifier.isEmpty() ? null : classifier;
+            this.version = version;
+        }
+
+        String getGroupId() {
+            return groupId;
+        }
+
+        String getArtifactId() {
+            return artifactId;
+        }
+
+        String getType() {
+            return type;
+        }
+
+        /**
+         * The classifier, or <code>null</code> if there is none.
+         */
+        String getClassifier() {
+            return classifier;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        private boolean hasSameTypeAndClassifier(Entry other) {
+            return type.equals(other.type) && (classifier == null ? other.classifier == null : classifier.equals(other.classifier));
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ":" + artifactId + ":" + type + (classifier == null ? "" : ":" + classifier) + ":" + version;
+        }
+    }
+
+    /**
+     * Thrown when the dependencies of a BOM are not sorted by groupId and
+     * artifactId, so that they cannot be compared in one pass.
+     */
+    static final class UnsortedBomException extends IOException {
+
+        private UnsortedBomException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A sorted source of dependencies.
+     */
+    private interface Source {
+
+        /**
+         * Returns the next dependency, or <code>null</code> at the end.
+         */
+        Entry next() throws IOException, XmlPullParserException;
+    }
+
+    /**
+     * Reads the dependencies of a source one groupId:artifactId at a time,
+     * checking that they are sorted.
+     */
+    private static final class Group {
+
+        private final String name;
+
+        private final Source source;
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Entry next;
+
+        private Group(String name, Source source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        private Group(String name, final Iterator<Entry> entries) {
+            this(name, new Source() {
+                @Override
+                public Entry next() {
+                    return entries.hasNext() ? entries.next() : null;
+                }
+            });
+        }
+
+        private Entry first() {
+            return entries.get(0);
+        }
+
+        /**
+         * Reads the dependencies of the next groupId:artifactId.
+         *
+         * @return <code>false</code> at the end of the source
+         */
+        private boolean advance() throws IOException {
+            Entry previous = entries.isEmpty() ? null : entries.get(0);
+            entries.clear();
+            if (previous == null) {
+                next = read();
+            }
+            if (next == null) {
+                return false;
+            }
+            if (previous != null && compareIds(previous, next) > 0) {
+                throw new UnsortedBomException("The dependencies of " + name + " are not sorted by groupId and artifactId: "
+                        + next + " follows " + previous);
+            }
+            entries.add(next);
+            while ((next = read()) != null && compareIds(entries.get(0), next) == 0) {
+                entries.add(next);
+            }
+            return true;
+        }
+
+        private Entry read() throws IOException {
+            try {
+                return source.next();
+            } catch (XmlPullParserException e) {
+                throw new IOException("Unable to parse " + name + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Pulls the managed dependencies of a POM one at a time, collecting its
+     * properties on the way.
+     */
+    private static final class PreviousBom implements Source {
+
+        private final XmlPullParser parser = new MXParser();
+
+        private final Map<String, String> properties = new LinkedHashMap<>();
+
+        private PreviousBom(Reader reader) throws XmlPullParserException {
+            parser.setInput(reader);
+        }
+
+        @Override
+        public Entry next() throws IOException, XmlPullParserException {
+            while (true) {
+                int event = parser.next();
+                if (event == XmlPullParser.END_DOCUMENT) {
+                    return null;
+                }
+                if (event != XmlPullParser.START_TAG) {
+                    continue;
+                }
+                // project, then properties or dependencyManagement, then dependencies, then dependency
+                int depth = parser.getDepth();
+                String element = parser.getName();
+                if (depth == 2 && "properties".equals(element)) {
+                    readProperties();
+                } else if (depth == 2 && !"dependencyManagement".equals(element)
+                        || depth == 3 && !"dependencies".equals(element)
+                        || depth == 4 && !"dependency".equals(element)) {
+                    skipElement();
+                } else if (depth == 4) {
+                    return readDependency();
+                }
+            }
+        }
+
+        private void readProperties() throws IOException, XmlPullParserException {
+            while (parser.nextTag() == XmlPullParser.START_TAG) {
+                String name = parser.getName();
+                properties.put(name, parser.nextText().trim());
+            }
+        }
+
+        private Entry readDependency() throws IOException, XmlPullParserException {
+            Map<String, String> fields = new LinkedHashMap<>();
+            while (parser.nextTag() == XmlPullParser.START_TAG) {
+                String element = parser.getName();
+                if ("exclusions".equals(element)) {
+                    skipElement();
+                } else {
+                    fields.put(element, parser.nextText().trim());
+                }
+            }
+            if (fields.get("groupId") == null || fields.get("artifactId") == null) {
+                throw new IOException("Managed dependency without groupId or artifactId at line " + parser.getLineNumber());
+            }
+            return new Entry(fields.get("groupId"), fields.get("artifactId"), fields.get("type"), fields.get("classifier"),
+                    resolve(fields.get("version")));
+        }
+
+        private String resolve(String version) {
+            if (version != null && version.startsWith("${") && version.endsWith("}")) {
+                String value = properties.get(version.substring(2, version.length() - 1));
+                if (value != null) {
+                    return value;
+                }
+            }
+            return version == null ? "" : version;
+        }
+
+        private void skipElement() throws IOException, XmlPullParserException {
+            int depth = parser.getDepth();
+            while (parser.next() != XmlPullParser.END_TAG || parser.getDepth() != depth) {
+                // skip the content
+            }
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.plugin.logging.Log;
+
+import static org.codehaus.plexus.util.StringUtils.isBlank;
+
+/**
+ * The <code>exclusions</code> configuration grouped by dependency groupId and
+ * artifactId, so that the exclusions of a dependency are found with a single
+ * lookup.  The dependency side of a rule may use the patterns supported by
+ * {@link IdPatternMap}, e.g. "org.springframework" / "*".
+ */
+class BomExclusionIndex {
+
+    private static final Comparator<Rule> CONFIGURATION_ORDER = new Comparator<Rule>() {
+        @Override
+        public int compare(Rule rule1, Rule rule2) {
+            return rule1.ordinal < rule2.ordinal ? -1 : (rule1.ordinal == rule2.ordinal ? 0 : 1);
+        }
+    };
+
+    private final GroupArtifactIndex<Rule> index = new GroupArtifactIndex<>();
+
+    private BomExclusionIndex() {
+    }
+
+    /**
+     * Compiles the given exclusions.  Rules which do not set both
+     * dependencyGroupId and dependencyArtifactId can never match and are
+     * ignored with a warning.
+     */
+    static BomExclusionIndex compile(List<BomExclusion> exclusions, Log log) {
+        BomExclusionIndex exclusionIndex = new BomExclusionIndex();
+        if (exclusions == null) {
+            return exclusionIndex;
+        }
+        int ordinal = 0;
+        for (BomExclusion exclusion : exclusions) {
+            if (isBlank(exclusion.getDependencyGroupId()) || isBlank(exclusion.getDependencyArtifactId())) {
+                log.warn("Ignoring exclusion of " + exclusion.getExclusionGroupId() + ":" + exclusion.getExclusionArtifactId()
+                        + " because dependencyGroupId or dependencyArtifactId is not set");
+                continue;
+            }
+            Rule rule = new Rule(ordinal++, exclusion.getExclusionGroupId(), exclusion.getExclusionArtifactId());
+            exclusionIndex.index.put(exclusion.getDependencyGroupId(), exclusion.getDependencyArtifactId(), rule);
+        }
+        return exclusionIndex;
+    }
+
+    boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /**
+     * Adds an <code>&lt;exclusion&gt;</code> to the dependency for each rule
+     * matching the given ids, in configuration order.  Most dependencies
+     * match no rule, so the rules are only collected once one is found.
+     */
+    void apply(String groupId, String artifactId, Dependency dependency) {
+        if (index.isEmpty() || index.findFirst(groupId, artifactId) == null) {
+            return;
+        }
+        List<Rule> rules = new ArrayList<>(2);
+        index.collect(groupId, artifactId, rules);
+        if (rules.size() > 1) {
+            Collections.sort(rules, CONFIGURATION_ORDER);
+        }
+        for (Rule rule : rules) {
+            Exclusion exclusion = new Exclusion();
+            exclusion.setGroupId(rule.groupId);
+            exclusion.setArtifactId(rule.artifactId);
+            dependency.addExclusion(exclusion);
+        }
+    }
+
+    private static class Rule {
+
+        private final int ordinal;
+
+        private final String groupId;
+
+        private final String artifactId;
+
+        private Rule(int ordinal, String groupId, String artifactId) {
+            this.ordinal = ordinal;
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+
+/**
+ * A SHA-256 digest of everything a generated BOM depends on: the sorted
+ * resolved artifacts and the configuration.  When the digest stored by the
+ * previous build matches, the BOM does not have to be generated again.  It
+ * also keys the cached resolutions on the declared dependencies.
+ */
+class BomFingerprint {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final MessageDigest digest;
+
+    BomFingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    BomFingerprint add(String name, Object value) {
+        update(name);
+        update(value == null ? null : value.toString());
+        return this;
+    }
+
+    BomFingerprint addDependencyExclusions(List<DependencyExclusion> exclusions) {
+        add("dependencyExclusions", exclusions == null ? 0 : exclusions.size());
+        if (exclusions != null) {
+            for (DependencyExclusion exclusion : exclusions) {
+                update(exclusion.getGroupId());
+                update(exclusion.getArtifactId());
+            }
+        }
+        return this;
+    }
+
+    BomFingerprint addExclusions(List<BomExclusion> exclusions) {
+        add("exclusions", exclusions == null ? 0 : exclusions.size());
+        if (exclusions != null) {
+            for (BomExclusion exclusion : exclusions) {
+                update(exclusion.getDependencyGroupId());
+                update(exclusion.getDependencyArtifactId());
+                update(exclusion.getExclusionGroupId());
+                update(exclusion.getExclusionArtifactId());
+            }
+        }
+        return this;
+    }
+
+    BomFingerprint addArtifacts(List<Artifact> artifacts) {
+        add("artifacts", artifacts.size());
+        for (Artifact artifact : artifacts) {
+            update(artifact.getGroupId());
+            update(artifact.getArtifactId());
+            update(artifact.getVersion());
+            update(artifact.getType());
+            update(artifact.getClassifier());
+            update(artifact.getScope());
+        }
+        return this;
+    }
+
+    BomFingerprint addCoordinates(List<ArtifactCoordinates.Coordinate> coordinates) {
+        add("coordinates", coordinates.size());
+        for (ArtifactCoordinates.Coordinate coordinate : coordinates) {
+            update(coordinate.getGroupId());
+            update(coordinate.getArtifactId());
+            update(coordinate.getVersion());
+            update(coordinate.getType());
+            update(coordinate.getClassifier());
+        }
+        return this;
+    }
+
+    BomFingerprint addManagedExclusions(Map<String, List<Exclusion>> exclusions) {
+        add("managedExclusions", exclusions.size());
+        for (Map.Entry<String, List<Exclusion>> entry : new TreeMap<>(exclusions).entrySet()) {
+            add(entry.getKey(), entry.getValue().size());
+            for (Exclusion exclusion : entry.getValue()) {
+                update(exclusion.getGroupId());
+                update(exclusion.getArtifactId());
+            }
+        }
+        return this;
+    }
+
+    BomFingerprint addDependencies(String name, List<Dependency> dependencies) {
+        add(name, dependencies == null ? 0 : dependencies.size());
+        if (dependencies != null) {
+            for (Dependency dependency : dependencies) {
+                update(dependency.getGroupId());
+                update(dependency.getArtifactId());
+                update(dependency.getVersion());
+                update(dependency.getType());
+                update(dependency.getClassifier());
+                update(dependency.getScope());
+                update(dependency.getSystemPath());
+                update(dependency.getOptional());
+                add("exclusions", dependency.getExclusions().size());
+                for (Exclusion exclusion : dependency.getExclusions()) {
+                    update(exclusion.getGroupId());
+                    update(exclusion.getArtifactId());
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the hexadecimal digest.  The fingerprint cannot be updated
+     * afterwards.
+     */
+    String toHex() {
+        return toHex(digest.digest());
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    static String read(File fingerprintFile) throws IOException {
+        if (!fingerprintFile.isFile()) {
+            return null;
+        }
+        return new String(Files.readAllBytes(fingerprintFile.toPath()), StandardCharsets.UTF_8).trim();
+    }
+
+    static void write(File fingerprintFile, String fingerprint) throws IOException {
+        fingerprintFile.getAbsoluteFile().getParentFile().mkdirs();
+        Files.write(fingerprintFile.toPath(), fingerprint.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void update(String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            digest.update((byte) 1);
+            digest.update(new byte[] {
+                (byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16), (byte) (bytes.length >>> 8), (byte) bytes.length });
+            digest.update(bytes);
+        }
+    }
+
+}
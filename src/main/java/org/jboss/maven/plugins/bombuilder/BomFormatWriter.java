@@ -0,0 +1,33 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+
+/**
+ * Writes a BOM in another format than a Maven POM, from the same header and
+ * dependencies as {@link StreamingBomWriter}, so that no format has to parse
+ * the generated POM.  The versions of the dependencies may be references to
+ * the properties of the header, see {@link BomFormats#resolveVersion}.
+ *
+ * A writer holds no state, so the formats of a BOM can be written
+ * concurrently, each from its own iterator.  The available writers are
+ * registered in {@link BomFormats}.
+ */
+interface BomFormatWriter {
+
+    /**
+     * The name of the format in the <code>outputFormats</code> parameter.
+     */
+    String getName();
+
+    /**
+     * The suffix of the file, which replaces the .xml extension of the BOM.
+     */
+    String getFileSuffix();
+
+    void write(Model header, Iterator<Dependency> dependencies, Writer writer) throws IOException;
+}
@@ -0,0 +1,67 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.maven.model.Dependency;
+
+/**
+ * The {@link BomFormatWriter}s by name, and the helpers they share.
+ */
+class BomFormats {
+
+    private static final Map<String, BomFormatWriter> WRITERS = new LinkedHashMap<>();
+
+    static {
+        register(new GradlePlatformWriter());
+        register(new VersionCatalogWriter());
+        register(new JsonBomWriter());
+    }
+
+    private BomFormats() {
+    }
+
+    private static void register(BomFormatWriter writer) {
+        WRITERS.put(writer.getName(), writer);
+    }
+
+    /**
+     * Returns the writer of the format, or <code>null</code> if there is none.
+     */
+    static BomFormatWriter get(String name) {
+        return WRITERS.get(name);
+    }
+
+    static Set<String> getNames() {
+        return Collections.unmodifiableSet(WRITERS.keySet());
+    }
+
+    /**
+     * Returns the name of the property the version of the dependency refers
+     * to, or <code>null</code> if its version is not a property reference.
+     */
+    static String getVersionProperty(Dependency dependency) {
+        String version = dependency.getVersion();
+        if (version != null && version.startsWith("${") && version.endsWith("}")) {
+            return version.substring(2, version.length() - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the version of the dependency, taken from the properties when
+     * it is a reference.
+     */
+    static String resolveVersion(Dependency dependency, Properties properties) {
+        String property = getVersionProperty(dependency);
+        if (property == null || properties == null) {
+            return dependency.getVersion();
+        }
+        String version = properties.getProperty(property);
+        return version == null ? dependency.getVersion() : version;
+    }
+
+}
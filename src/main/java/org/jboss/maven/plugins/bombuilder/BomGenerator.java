@@ -0,0 +1,1017 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Generates one BOM, described by a {@link BomDefinition}, from the sorted
+ * artifacts of a project.
+ *
+ * The exclusion rules are compiled when the generator is created.  A generator
+ * only reads the artifacts it is given, so generators of different definitions
+ * can run concurrently on the same artifact list.
+ */
+class BomGenerator
+{
+
+    private final BomDefinition definition;
+
+    private final BuildBomMojo.ModelWriter modelWriter;
+
+    private final PomDependencyVersionsTransformer versionsTransformer;
+
+    private final StreamingBomWriter streamingWriter;
+
+    private final Log log;
+
+    private final DependencyExclusionMatcher dependencyExclusionMatcher;
+
+    private final BomExclusionIndex bomExclusionIndex;
+
+    private boolean streamOutput;
+
+    private boolean incremental;
+
+    private String pluginVersion;
+
+    private boolean metricsReport;
+
+    private boolean binaryIndex;
+
+    private ForkJoinPool projectionPool;
+
+    private int projectionThreshold;
+
+    private Map<String, List<Exclusion>> managedExclusions = Collections.emptyMap();
+
+    private CoordinatePool coordinatePool = new CoordinatePool();
+
+    private RepositoryVerifier repositoryVerifier;
+
+    private List<BomFormatWriter> formatWriters = Collections.emptyList();
+
+    private final GenerationCache cache;
+
+    /**
+     * Keeps the bytes of the files written by the current generation for the
+     * cache, or <code>null</code> when there is no cache.
+     */
+    private OutputFiles.Recorder recorder;
+
+    private final BomMetrics metrics = new BomMetrics();
+
+    BomGenerator( BomDefinition definition, BuildBomMojo.ModelWriter modelWriter,
+                  PomDependencyVersionsTransformer versionsTransformer, StreamingBomWriter streamingWriter, Log log )
+    {
+        this( definition, modelWriter, versionsTransformer, streamingWriter, log, null );
+    }
+
+    /**
+     * @param cache the cache of the compiled exclusions and of the outputs
+     *        of previous builds, or <code>null</code> to compile and
+     *        generate everything
+     */
+    BomGenerator( BomDefinition definition, BuildBomMojo.ModelWriter modelWriter,
+                  PomDependencyVersionsTransformer versionsTransformer, StreamingBomWriter streamingWriter, Log log,
+                  GenerationCache cache )
+    {
+        this.definition = definition;
+        this.modelWriter = modelWriter;
+        this.versionsTransformer = versionsTransformer;
+        this.streamingWriter = streamingWriter;
+        this.log = log;
+        this.cache = cache;
+        if ( cache == null )
+        {
+            this.dependencyExclusionMatcher = DependencyExclusionMatcher.compile( definition.getDependencyExclusions() );
+            this.bomExclusionIndex = BomExclusionIndex.compile( definition.getExclusions(), log );
+        }
+        else
+        {
+            this.dependencyExclusionMatcher = cache.getDependencyExclusionMatcher( definition.getDependencyExclusions() );
+            this.bomExclusionIndex = cache.getBomExclusionIndex( definition.getExclusions(), log );
+        }
+    }
+
+    /**
+     * Whether the BOM is written while the artifacts are visited, see
+     * {@link StreamingBomWriter}.
+     */
+    void setStreamOutput( boolean streamOutput )
+    {
+        this.streamOutput = streamOutput;
+    }
+
+    /**
+     * Whether the BOM and the files derived from it are not written again
+     * when the fingerprint of the previous build matches.
+     */
+    void setIncremental( boolean incremental )
+    {
+        this.incremental = incremental;
+    }
+
+    void setPluginVersion( String pluginVersion )
+    {
+        this.pluginVersion = pluginVersion;
+    }
+
+    /**
+     * Whether the metrics are written to a JSON file next to the BOM.
+     */
+    void setMetricsReport( boolean metricsReport )
+    {
+        this.metricsReport = metricsReport;
+    }
+
+    /**
+     * Whether a {@link BomIndex} of the dependencies is written next to the
+     * BOM.
+     */
+    void setBinaryIndex( boolean binaryIndex )
+    {
+        this.binaryIndex = binaryIndex;
+    }
+
+    /**
+     * Filters the artifacts and creates the dependencies on the given pool
+     * when there are more than <code>threshold</code> artifacts, see
+     * {@link ParallelDependencyProjection}.  The output is the same as in the
+     * serial mode.
+     */
+    void setParallelProjection( ForkJoinPool pool, int threshold )
+    {
+        this.projectionPool = pool;
+        this.projectionThreshold = threshold;
+    }
+
+    /**
+     * Exclusions copied to the dependencies, by dependency conflict id, such
+     * as those of the flattened dependency management.
+     */
+    void setManagedExclusions( Map<String, List<Exclusion>> managedExclusions )
+    {
+        this.managedExclusions = managedExclusions;
+    }
+
+    /**
+     * The pool sharing the repeated strings of the dependencies, which may be
+     * shared by the generators of one execution.
+     */
+    void setCoordinatePool( CoordinatePool coordinatePool )
+    {
+        this.coordinatePool = coordinatePool;
+    }
+
+    /**
+     * The verifier checking that the dependencies exist in a repository once
+     * the BOM is written or found up to date, or <code>null</code> to skip
+     * the verification.
+     */
+    void setRepositoryVerifier( RepositoryVerifier repositoryVerifier )
+    {
+        this.repositoryVerifier = repositoryVerifier;
+    }
+
+    /**
+     * The other formats the BOM is written in, next to the POM.
+     */
+    void setFormatWriters( List<BomFormatWriter> formatWriters )
+    {
+        this.formatWriters = formatWriters;
+    }
+
+    BomDefinition getDefinition()
+    {
+        return definition;
+    }
+
+    /**
+     * The metrics of the last generation.
+     */
+    BomMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    void generate( List<Artifact> projectArtifacts, String buildDirectory )
+        throws MojoExecutionException, MojoFailureException
+    {
+        log.debug( "Generating BOM " + definition );
+        BomOutputs outputs = new BomOutputs( buildDirectory, definition.getOutputFilename() );
+        File outputFile = outputs.getBomFile();
+        IncrementalGeneration incrementalGeneration = new IncrementalGeneration( outputs, cache, log );
+
+        String fingerprint = null;
+        boolean upToDate = false;
+        if ( incremental )
+        {
+            fingerprint = computeFingerprint( projectArtifacts );
+            upToDate = incrementalGeneration.isUpToDate( fingerprint, getOutputFiles( outputs ) );
+        }
+        startRecording( incrementalGeneration, upToDate ? null : fingerprint );
+
+        metrics.setArtifactsSeen( projectArtifacts.size() );
+        List<Artifact> includedArtifacts;
+        DependencyManagement dependencyManagement = null;
+        if ( projectionPool != null && projectArtifacts.size() > projectionThreshold )
+        {
+            // only the allocations of the calling thread could be measured
+            long start = System.nanoTime();
+            ParallelDependencyProjection.Result result =
+                ParallelDependencyProjection.project( projectionPool, projectionThreshold, projectArtifacts, this,
+                                                      !streamOutput && !upToDate );
+            metrics.record( streamOutput ? BomMetrics.Phase.FILTER : BomMetrics.Phase.EXCLUSIONS,
+                            System.nanoTime() - start, BomMetrics.UNKNOWN_BYTES );
+            includedArtifacts = result.getIncludedArtifacts();
+            if ( !streamOutput && !upToDate )
+            {
+                dependencyManagement = new DependencyManagement();
+                dependencyManagement.setDependencies( result.getDependencies() );
+            }
+        }
+        else
+        {
+            try ( BomMetrics.Timer timer = metrics.time( BomMetrics.Phase.FILTER ) )
+            {
+                includedArtifacts = filterArtifacts( projectArtifacts );
+            }
+        }
+        metrics.setArtifactsExcluded( projectArtifacts.size() - includedArtifacts.size() );
+        metrics.setDependenciesWritten( includedArtifacts.size() );
+
+        boolean written;
+        Properties bomProperties;
+        if ( upToDate )
+        {
+            // only the properties are planned, to compare them with the previous BOM
+            Model header = initializeModel();
+            planHeaderProperties( includedArtifacts, header );
+            written = false;
+            bomProperties = header.getProperties();
+        }
+        else if ( streamOutput )
+        {
+            Model header = initializeModel();
+            VersionPropertyPlan plan = planHeaderProperties( includedArtifacts, header );
+            Iterable<Dependency> dependencies = createDependencies( includedArtifacts, plan );
+            written = writeStreamingBom( header, dependencies, outputFile );
+            writeFormats( header, dependencies, outputs );
+            bomProperties = header.getProperties();
+        }
+        else
+        {
+            Model model = initializeModel();
+            int headerProperties = model.getProperties().size();
+            if ( dependencyManagement == null )
+            {
+                try ( BomMetrics.Timer timer = metrics.time( BomMetrics.Phase.EXCLUSIONS ) )
+                {
+                    dependencyManagement = createDependencyManagement( includedArtifacts );
+                }
+            }
+            model.setDependencyManagement( dependencyManagement );
+            try ( BomMetrics.Timer timer = metrics.time( BomMetrics.Phase.PROPERTIES ) )
+            {
+                model = addVersionProperties( includedArtifacts, model );
+            }
+            metrics.setPropertiesGenerated( model.getProperties().size() - headerProperties );
+            try ( BomMetrics.Timer timer = metrics.time( BomMetrics.Phase.WRITE ) )
+            {
+                written = recorder == null
+                    ? modelWriter.writeModel( model, outputFile )
+                    : modelWriter.writeModel( model, outputFile, recorder );
+            }
+            writeFormats( model, model.getDependencyManagement().getDependencies(), outputs );
+            bomProperties = model.getProperties();
+        }
+        log.debug( "Added " + includedArtifacts.size() + " dependencies." );
+        completeGeneration( outputs, incrementalGeneration, upToDate, written, toEntries( includedArtifacts ),
+                            bomProperties, fingerprint );
+    }
+
+    /**
+     * Generates the BOM from a coordinate list, see {@link ArtifactCoordinates}.
+     * The lines are filtered as they are read, and only the coordinates of the
+     * included artifacts are kept to be sorted and planned.  When a list
+     * holds several versions of an artifact, the highest one is managed.  The
+     * BOM is always written by the streaming writer.
+     */
+    void generateFromCoordinates( File coordinateFile, String buildDirectory )
+        throws MojoExecutionException, MojoFailureException
+    {
+        log.debug( "Generating BOM " + definition + " from " + coordinateFile );
+        BomOutputs outputs = new BomOutputs( buildDirectory, definition.getOutputFilename() );
+        IncrementalGeneration incrementalGeneration = new IncrementalGeneration( outputs, cache, log );
+
+        final List<ArtifactCoordinates.Coordinate> coordinates = new ArrayList<ArtifactCoordinates.Coordinate>();
+        final int[] seen = new int[1];
+        try ( BomMetrics.Timer timer = metrics.time( BomMetrics.Phase.FILTER ) )
+        {
+            ArtifactCoordinates.read( coordinateFile, coordinatePool, new ArtifactCoordinates.Handler()
+            {
+                @Override
+                public void handle( ArtifactCoordinates.Coordinate coordinate )
+                {
+                    seen[0]++;
+                    if ( !isExcludedDependency( coordinate.getGroupId(), coordinate.getArtifactId() ) )
+                    {
+                        coordinates.add( coordinate );
+                    }
+                }
+            } );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to read " + coordinateFile, e );
+        }
+        metrics.setArtifactsSeen( seen[0] );
+        metrics.setArtifactsExcluded( seen[0] - coordinates.size() );
+        List<ArtifactCoordinates.Coordinate> includedCoordinates = keepHighestVersions( coordinates );
+        metrics.setDependenciesWritten( includedCoordinates.size() );
+
+        String fingerprint = null;
+        boolean upToDate = false;
+        if ( incremental )
+        {
+            fingerprint = fingerprintConfiguration().addCoordinates( includedCoordinates ).toHex();
+            upToDate = incrementalGeneration.isUpToDate( fingerprint, getOutputFiles( outputs ) );
+        }
+        startRecording( incrementalGeneration, upToDate ? null : fingerprint );
+
+        Model header = initializeModel();
+        VersionPropertyPlan plan = null;
+        if ( definition.isAddVersionProperties() || definition.isUsePropertiesForVersion() )
+        {
+            try ( BomMetrics.Timer timer = metrics.time( BomMetrics.Phase.PROPERTIES ) )
+            {
+                VersionPropertyPlanner versionPlanner = new VersionPropertyPlanner( coordinatePool );
+                versionPlanner.setShareAcrossGroups( definition.isShareVersionProperties() );
+                for ( ArtifactCoordinates.Coordinate coordinate : includedCoordinates )
+                {
+                    versionPlanner.add( coordinate.getGroupId(), coordinate.getArtifactId(), coordinate.getVersion() );
+                }
+                plan = plan( versionPlanner );
+                plan.addPropertiesTo( header.getProperties() );
+            }
+            metrics.setPropertiesGenerated( plan.getProperties().size() );
+        }
+        boolean written = false;
+        if ( !upToDate )
+        {
+            Iterable<Dependency> dependencies = createCoordinateDependencies( includedCoordinates, plan );
+            try ( BomMetrics.Timer timer = metrics.time( BomMetrics.Phase.WRITE ) )
+            {
+                written = streamingWriter.writeBom( header, dependencies.iterator(), outputs.getBomFile(), recorder );
+            }
+            writeFormats( header, dependencies, outputs );
+        }
+        completeGeneration( outputs, incrementalGeneration, upToDate, written,
+                            toCoordinateEntries( includedCoordinates ), header.getProperties(), fingerprint );
+    }
+
+    /**
+     * The files a generation of the BOM writes with the current configuration.
+     */
+    private List<File> getOutputFiles( BomOutputs outputs )
+    {
+        List<File> files = new ArrayList<File>();
+        File outputFile = outputs.getBomFile();
+        files.add( outputFile );
+        files.add( new File( outputFile.getPath() + ".sha1" ) );
+        files.add( new File( outputFile.getPath() + ".sha256" ) );
+        if ( binaryIndex )
+        {
+            files.add( outputs.getIndexFile() );
+        }
+        if ( definition.getPreviousBom() != null && definition.getPreviousBom().isFile() )
+        {
+            files.add( outputs.getDiffFile() );
+        }
+        if ( metricsReport )
+        {
+            files.add( outputs.getMetricsReportFile() );
+        }
+        for ( BomFormatWriter formatWriter : formatWriters )
+        {
+            files.add( outputs.getFormatFile( formatWriter ) );
+        }
+        return files;
+    }
+
+    /**
+     * Starts recording the files written by an incremental generation, see
+     * {@link IncrementalGeneration#startRecording()}.
+     */
+    private void startRecording( IncrementalGeneration incrementalGeneration, String fingerprint )
+    {
+        recorder = fingerprint == null ? null : incrementalGeneration.startRecording();
+    }
+
+    /**
+     * Writes the outputs derived from the dependencies of the written BOM,
+     * verifies them against the repository, reports the metrics and stores
+     * the fingerprint, whichever source the BOM was generated from.  When the
+     * BOM is up to date, its files are not written again, but it is still
+     * compared with the previous BOM and verified, and its metrics are
+     * summarized.
+     *
+     * @param dependencies the dependencies of the BOM, sorted by groupId and
+     *        artifactId when the BOM is compared with a previous one
+     * @param fingerprint the fingerprint of the generation, or
+     *        <code>null</code> when it is not incremental
+     */
+    private void completeGeneration( BomOutputs outputs, IncrementalGeneration incrementalGeneration,
+                                     boolean upToDate, boolean written, Iterable<BomDiff.Entry> dependencies,
+                                     Properties bomProperties, String fingerprint )
+        throws MojoExecutionException, MojoFailureException
+    {
+        BomReports reports = new BomReports( definition, outputs, log, recorder );
+        if ( binaryIndex && !upToDate )
+        {
+            reports.writeIndex( dependencies );
+        }
+        if ( definition.getPreviousBom() != null )
+        {
+            reports.writeDiff( dependencies.iterator(), bomProperties );
+        }
+        if ( repositoryVerifier != null )
+        {
+            // the repository may have changed since the previous build, so an up to date BOM is verified as well
+            new BomVerification( repositoryVerifier, definition, log ).verify( dependencies );
+        }
+        if ( !written && !upToDate )
+        {
+            log.info( "BOM " + outputs.getBomFile() + " is unchanged" );
+        }
+        log.debug( "Shared " + coordinatePool.stringCount() + " strings and " + coordinatePool.keyCount() + " keys" );
+        if ( metricsReport )
+        {
+            log.info( "BOM " + definition + ": " + metrics.toSummary() );
+        }
+        else
+        {
+            log.debug( "BOM " + definition + ": " + metrics.toSummary() );
+        }
+        if ( upToDate )
+        {
+            return;
+        }
+        if ( metricsReport )
+        {
+            reports.writeMetrics( metrics );
+        }
+
+        if ( fingerprint != null )
+        {
+            incrementalGeneration.complete( fingerprint );
+        }
+        recorder = null;
+    }
+
+    /**
+     * Sorts the coordinates and keeps the highest version of each dependency
+     * management entry.
+     */
+    private List<ArtifactCoordinates.Coordinate> keepHighestVersions( List<ArtifactCoordinates.Coordinate> coordinates )
+    {
+        Collections.sort( coordinates );
+        List<ArtifactCoordinates.Coordinate> highest = new ArrayList<ArtifactCoordinates.Coordinate>( coordinates.size() );
+        ArtifactCoordinates.Coordinate previous = null;
+        for ( ArtifactCoordinates.Coordinate coordinate : coordinates )
+        {
+            if ( previous != null && previous.hasSameManagementKey( coordinate ) )
+            {
+                highest.set( highest.size() - 1, coordinate );
+            }
+            else
+            {
+                highest.add( coordinate );
+            }
+            previous = coordinate;
+        }
+        if ( highest.size() < coordinates.size() )
+        {
+            log.debug( "Kept the highest version of " + highest.size() + " artifacts listed with "
+                + coordinates.size() + " versions" );
+        }
+        return highest;
+    }
+
+    private String computeFingerprint( List<Artifact> projectArtifacts )
+    {
+        return fingerprintConfiguration()
+            .addArtifacts( projectArtifacts )
+            .addManagedExclusions( managedExclusions )
+            .toHex();
+    }
+
+    private BomFingerprint fingerprintConfiguration()
+    {
+        return new BomFingerprint()
+            .add( "pluginVersion", pluginVersion )
+            .add( "bomGroupId", definition.getBomGroupId() )
+            .add( "bomArtifactId", definition.getBomArtifactId() )
+            .add( "bomVersion", definition.getBomVersion() )
+            .add( "bomName", definition.getBomName() )
+            .add( "bomDescription", definition.getBomDescription() )
+            .add( "outputFilename", definition.getOutputFilename() )
+            .add( "addVersionProperties", definition.isAddVersionProperties() )
+            .add( "usePropertiesForVersion", definition.isUsePropertiesForVersion() )
+            .add( "shareVersionProperties", definition.isShareVersionProperties() )
+            .add( "streamOutput", streamOutput )
+            .add( "metricsReport", metricsReport )
+            .add( "binaryIndex", binaryIndex )
+            .add( "outputFormats", getFormatNames() )
+            .add( "previousBom", describe( definition.getPreviousBom() ) )
+            .addExclusions( definition.getExclusions() )
+            .addDependencyExclusions( definition.getDependencyExclusions() );
+    }
+
+    private String getFormatNames()
+    {
+        StringBuilder names = new StringBuilder();
+        for ( BomFormatWriter formatWriter : formatWriters )
+        {
+            names.append( formatWriter.getName() ).append( ',' );
+        }
+        return names.toString();
+    }
+
+    /**
+     * Identifies the content of a file without reading it.
+     */
+    private static String describe( File file )
+    {
+        if ( file == null )
+        {
+            return null;
+        }
+        return file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+    }
+
+    Model initializeModel()
+    {
+        Model pomModel = new Model();
+        pomModel.setModelVersion( "4.0.0" );
+
+        pomModel.setGroupId( definition.getBomGroupId() );
+        pomModel.setArtifactId( definition.getBomArtifactId() );
+        pomModel.setVersion( definition.getBomVersion() );
+        pomModel.setPackaging( "pom" );
+
+        pomModel.setName( definition.getBomName() );
+        pomModel.setDescription( definition.getBomDescription() );
+
+        pomModel.setProperties( new OrderedProperties() );
+        pomModel.getProperties().setProperty( "project.build.sourceEncoding", "UTF-8" );
+
+        return pomModel;
+    }
+
+    /**
+     * Returns the artifacts which are not excluded, in the same order.
+     */
+    List<Artifact> filterArtifacts( List<Artifact> projectArtifacts )
+    {
+        List<Artifact> includedArtifacts = new ArrayList<Artifact>( projectArtifacts.size() );
+        for ( Artifact artifact : projectArtifacts )
+        {
+            if ( !isExcludedDependency( artifact ) )
+            {
+                includedArtifacts.add( artifact );
+            }
+        }
+        return includedArtifacts;
+    }
+
+    DependencyManagement createDependencyManagement( List<Artifact> includedArtifacts )
+    {
+        DependencyManagement depMgmt = new DependencyManagement();
+        for ( Artifact artifact : includedArtifacts )
+        {
+            depMgmt.addDependency( createDependency( artifact ) );
+        }
+        return depMgmt;
+    }
+
+    /**
+     * Adds the version properties to the model, and replaces its dependency
+     * versions with them when the BOM uses them.  The properties are planned
+     * once for both.
+     *
+     * @return the model
+     */
+    Model addVersionProperties( List<Artifact> includedArtifacts, Model pomModel )
+    {
+        if ( !definition.isAddVersionProperties() && !definition.isUsePropertiesForVersion() )
+        {
+            return pomModel;
+        }
+        VersionPropertyPlan plan = planVersionProperties( includedArtifacts );
+        if ( definition.isAddVersionProperties() )
+        {
+            plan.addPropertiesTo( pomModel.getProperties() );
+        }
+        if ( definition.isUsePropertiesForVersion() )
+        {
+            versionsTransformer.transformPomModel( pomModel, plan );
+            log.debug( "Dependencies versions converted to properties" );
+        }
+        return pomModel;
+    }
+
+    private VersionPropertyPlan planVersionProperties( List<Artifact> includedArtifacts )
+    {
+        VersionPropertyPlanner versionPlanner = new VersionPropertyPlanner( coordinatePool );
+        versionPlanner.setShareAcrossGroups( definition.isShareVersionProperties() );
+        for ( Artifact artifact : includedArtifacts )
+        {
+            versionPlanner.add( artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion() );
+        }
+        return plan( versionPlanner );
+    }
+
+    /**
+     * Plans the version properties, or takes the plan of the same versions
+     * from the cache.
+     */
+    private VersionPropertyPlan plan( VersionPropertyPlanner versionPlanner )
+    {
+        return cache == null ? versionPlanner.plan() : cache.getVersionPropertyPlan( versionPlanner );
+    }
+
+    /**
+     * Writes the BOM while visiting the filtered artifacts, producing the same
+     * output as {@link #createDependencyManagement(List)} followed by
+     * {@link #addVersionProperties(List, Model)} and the model writer.  The
+     * dependencies are created one at a time, so applying the BOM exclusions
+     * is measured as part of the write phase.
+     */
+    private boolean writeStreamingBom( Model header, Iterable<Dependency> dependencies, File outputFile )
+        throws MojoExecutionException
+    {
+        if ( definition.isUsePropertiesForVersion() )
+        {
+            log.debug( "Dependencies versions converted to properties" );
+        }
+        try ( BomMetrics.Timer timer = metrics.time( BomMetrics.Phase.WRITE ) )
+        {
+            return streamingWriter.writeBom( header, dependencies.iterator(), outputFile, recorder );
+        }
+    }
+
+    /**
+     * Plans the version properties of a streamed BOM and adds them to its
+     * header.
+     *
+     * @return the plan, or <code>null</code> if the BOM has no version
+     *         properties
+     */
+    private VersionPropertyPlan planHeaderProperties( List<Artifact> includedArtifacts, Model header )
+    {
+        if ( !definition.isAddVersionProperties() && !definition.isUsePropertiesForVersion() )
+        {
+            return null;
+        }
+        VersionPropertyPlan plan;
+        try ( BomMetrics.Timer timer = metrics.time( BomMetrics.Phase.PROPERTIES ) )
+        {
+            plan = planVersionProperties( includedArtifacts );
+            plan.addPropertiesTo( header.getProperties() );
+        }
+        metrics.setPropertiesGenerated( plan.getProperties().size() );
+        return plan;
+    }
+
+    /**
+     * Returns the dependencies of the filtered artifacts, created anew by
+     * each iterator, with their versions replaced by version properties when
+     * the BOM uses them.
+     */
+    private Iterable<Dependency> createDependencies( final List<Artifact> includedArtifacts,
+                                                     final VersionPropertyPlan plan )
+    {
+        return new Iterable<Dependency>()
+        {
+            @Override
+            public Iterator<Dependency> iterator()
+            {
+                return new DependencyIterator<Artifact>( includedArtifacts.iterator(),
+                                                         definition.isUsePropertiesForVersion() ? plan : null )
+                {
+                    @Override
+                    Dependency createDependency( Artifact artifact )
+                    {
+                        return BomGenerator.this.createDependency( artifact );
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Returns the dependencies of the filtered coordinates, like
+     * {@link #createDependencies(List, VersionPropertyPlan)}.
+     */
+    private Iterable<Dependency> createCoordinateDependencies(
+        final List<ArtifactCoordinates.Coordinate> includedCoordinates, final VersionPropertyPlan plan )
+    {
+        return new Iterable<Dependency>()
+        {
+            @Override
+            public Iterator<Dependency> iterator()
+            {
+                return new DependencyIterator<ArtifactCoordinates.Coordinate>( includedCoordinates.iterator(),
+                                                                           definition.isUsePropertiesForVersion() ? plan : null )
+                {
+                    @Override
+                    Dependency createDependency( ArtifactCoordinates.Coordinate coordinate )
+                    {
+                        return BomGenerator.this.createDependency( coordinate );
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Writes the BOM in the other output formats next to it, each on its own
+     * thread and from its own iterator over the dependencies, so the formats
+     * cost one serialisation each.
+     */
+    private void writeFormats( final Model header, final Iterable<Dependency> dependencies, BomOutputs outputs )
+        throws MojoExecutionException
+    {
+        if ( formatWriters.isEmpty() )
+        {
+            return;
+        }
+        final OutputFiles.Recorder formatRecorder = recorder;
+        ExecutorService executor = Executors.newFixedThreadPool( formatWriters.size() );
+        try ( BomMetrics.Timer timer = metrics.time( BomMetrics.Phase.WRITE ) )
+        {
+            List<File> formatFiles = new ArrayList<File>( formatWriters.size() );
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>( formatWriters.size() );
+            for ( final BomFormatWriter formatWriter : formatWriters )
+            {
+                final File formatFile = outputs.getFormatFile( formatWriter );
+                formatFiles.add( formatFile );
+                results.add( executor.submit( new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call()
+                        throws IOException
+                    {
+                        return OutputFiles.writeIfChanged( formatFile, new OutputFiles.Content()
+                        {
+                            @Override
+                            public void writeTo( Writer writer )
+                                throws IOException
+                            {
+                                formatWriter.write( header, dependencies.iterator(), writer );
+                            }
+                        }, formatRecorder );
+                    }
+                } ) );
+            }
+            for ( int i = 0; i < results.size(); i++ )
+            {
+                try
+                {
+                    results.get( i ).get();
+                }
+                catch ( ExecutionException e )
+                {
+                    throw new MojoExecutionException( "Unable to write " + formatFiles.get( i ), e.getCause() );
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while writing the formats of " + definition, e );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    Dependency createDependency( Artifact artifact )
+    {
+        Dependency dep = newDependency( artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(),
+                                        artifact.getType(), artifact.getClassifier() );
+        if ( !managedExclusions.isEmpty() )
+        {
+            List<Exclusion> exclusions = managedExclusions.get( artifact.getDependencyConflictId() );
+            if ( exclusions != null )
+            {
+                for ( Exclusion exclusion : exclusions )
+                {
+                    dep.addExclusion( exclusion.clone() );
+                }
+            }
+        }
+        bomExclusionIndex.apply( artifact.getGroupId(), artifact.getArtifactId(), dep );
+        return dep;
+    }
+
+    private Dependency createDependency( ArtifactCoordinates.Coordinate coordinate )
+    {
+        Dependency dep = newDependency( coordinate.getGroupId(), coordinate.getArtifactId(), coordinate.getVersion(),
+                                        coordinate.getType(), coordinate.getClassifier() );
+        bomExclusionIndex.apply( coordinate.getGroupId(), coordinate.getArtifactId(), dep );
+        return dep;
+    }
+
+    /**
+     * Creates a dependency whose repeated strings are taken from the pool.
+     */
+    private Dependency newDependency( String groupId, String artifactId, String version, String type,
+                                      String classifier )
+    {
+        Dependency dep = new Dependency();
+        dep.setGroupId( coordinatePool.share( groupId ) );
+        dep.setArtifactId( artifactId );
+        dep.setVersion( coordinatePool.share( version ) );
+        if ( !StringUtils.isEmpty( classifier ) )
+        {
+            dep.setClassifier( coordinatePool.share( classifier ) );
+        }
+        if ( !StringUtils.isEmpty( type ) )
+        {
+            dep.setType( coordinatePool.share( type ) );
+        }
+        return dep;
+    }
+
+    boolean isExcludedDependency( Artifact artifact )
+    {
+        return isExcludedDependency( artifact.getGroupId(), artifact.getArtifactId() );
+    }
+
+    private boolean isExcludedDependency( String groupId, String artifactId )
+    {
+        DependencyExclusion exclusion = dependencyExclusionMatcher.findMatch( groupId, artifactId );
+        if ( exclusion != null )
+        {
+            log.debug( "Artifact " + groupId + ":" + artifactId + " matches excluded dependency "
+                + exclusion.getGroupId() + ":" + exclusion.getArtifactId() );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the entries of the filtered artifacts, created anew by each
+     * iterator.
+     */
+    private static Iterable<BomDiff.Entry> toEntries( final List<Artifact> includedArtifacts )
+    {
+        return new Iterable<BomDiff.Entry>()
+        {
+            @Override
+            public Iterator<BomDiff.Entry> iterator()
+            {
+                return new EntryIterator<Artifact>( includedArtifacts.iterator() )
+                {
+                    @Override
+                    BomDiff.Entry toEntry( Artifact artifact )
+                    {
+                        return new BomDiff.Entry( artifact.getGroupId(), artifact.getArtifactId(), artifact.getType(),
+                                                  artifact.getClassifier(), artifact.getVersion() );
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Returns the entries of the filtered coordinates, like
+     * {@link #toEntries(List)}.
+     */
+    private static Iterable<BomDiff.Entry> toCoordinateEntries(
+        final List<ArtifactCoordinates.Coordinate> includedCoordinates )
+    {
+        return new Iterable<BomDiff.Entry>()
+        {
+            @Override
+            public Iterator<BomDiff.Entry> iterator()
+            {
+                return new EntryIterator<ArtifactCoordinates.Coordinate>( includedCoordinates.iterator() )
+                {
+                    @Override
+                    BomDiff.Entry toEntry( ArtifactCoordinates.Coordinate coordinate )
+                    {
+                        return new BomDiff.Entry( coordinate.getGroupId(), coordinate.getArtifactId(),
+                                                  coordinate.getType(), coordinate.getClassifier(),
+                                                  coordinate.getVersion() );
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Creates the entries of the dependencies, as compared by {@link BomDiff},
+     * one at a time from the filtered artifacts.
+     */
+    private abstract static class EntryIterator<T>
+        implements Iterator<BomDiff.Entry>
+    {
+        private final Iterator<T> artifacts;
+
+        EntryIterator( Iterator<T> artifacts )
+        {
+            this.artifacts = artifacts;
+        }
+
+        abstract BomDiff.Entry toEntry( T artifact );
+
+        @Override
+        public boolean hasNext()
+        {
+            return artifacts.hasNext();
+        }
+
+        @Override
+        public BomDiff.Entry next()
+        {
+            return toEntry( artifacts.next() );
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Creates the dependencies of the BOM one at a time from the filtered
+     * artifacts, optionally replacing their versions with version properties.
+     */
+    private abstract static class DependencyIterator<T>
+        implements Iterator<Dependency>
+    {
+        private final Iterator<T> artifacts;
+
+        private final VersionPropertyPlan plan;
+
+        DependencyIterator( Iterator<T> artifacts, VersionPropertyPlan plan )
+        {
+            this.artifacts = artifacts;
+            this.plan = plan;
+        }
+
+        abstract Dependency createDependency( T artifact );
+
+        @Override
+        public boolean hasNext()
+        {
+            return artifacts.hasNext();
+        }
+
+        @Override
+        public Dependency next()
+        {
+            Dependency dependency = createDependency( artifacts.next() );
+            if ( plan != null )
+            {
+                plan.applyTo( dependency );
+            }
+            return dependency;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,383 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A binary index of the dependencies of a BOM by groupId and artifactId, which
+ * tools can query without parsing the BOM.
+ *
+ * The index is memory-mapped and a lookup reads a few slots of an open
+ * addressing hash table, so it takes constant time and does not decode more
+ * than the entries it returns.  An index is safe to query from several
+ * threads.
+ *
+ * <pre>
+ * BomIndex index = BomIndex.open(new File("target/bom-pom.idx"));
+ * String version = index.findVersion("junit", "junit");
+ * </pre>
+ *
+ * The file starts with five big-endian ints: the magic number, the format
+ * version, the number of entries, the number of groupId:artifactId pairs and
+ * the number of hash slots, a power of two.  The slots follow, each holding 0
+ * when empty or one more than the index of a pair.  Each pair is stored as the
+ * hash of its ids, the offsets of its groupId and artifactId, the index of its
+ * first entry and its number of entries.  Each entry is stored as the offsets
+ * of its version, its type and its classifier, or -1 when it has none.  The
+ * strings come last, each as its length followed by its UTF-8 bytes.
+ */
+public final class BomIndex {
+
+    private static final int MAGIC = 0x424f4d49;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 5 * 4;
+
+    private static final int SLOT_SIZE = 4;
+
+    private static final int KEY_RECORD_SIZE = 5 * 4;
+
+    private static final int ENTRY_RECORD_SIZE = 3 * 4;
+
+    private static final int NO_STRING = -1;
+
+    private final ByteBuffer buffer;
+
+    private final int entryCount;
+
+    private final int slotMask;
+
+    private final int keysOffset;
+
+    private final int entriesOffset;
+
+    private BomIndex(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a BOM index");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported BOM index version " + buffer.getInt(4));
+        }
+        entryCount = buffer.getInt(8);
+        int keyCount = buffer.getInt(12);
+        int slotCount = buffer.getInt(16);
+        slotMask = slotCount - 1;
+        keysOffset = HEADER_SIZE + slotCount * SLOT_SIZE;
+        entriesOffset = keysOffset + keyCount * KEY_RECORD_SIZE;
+        if (Integer.bitCount(slotCount) != 1 || entriesOffset + entryCount * ENTRY_RECORD_SIZE > buffer.capacity()) {
+            throw new IOException("Corrupt BOM index");
+        }
+    }
+
+    /**
+     * Maps the given index file into memory.
+     *
+     * @throws IOException if the file cannot be read or is not a BOM index
+     */
+    public static BomIndex open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new BomIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new IOException("Unable to read BOM index " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The number of dependencies in the index.
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the dependencies of the BOM with the given ids, one per type
+     * and classifier, or an empty list if the BOM has none.
+     */
+    public List<Entry> find(String groupId, String artifactId) {
+        int key = findKey(groupId, artifactId);
+        if (key < 0) {
+            return Collections.emptyList();
+        }
+        int record = keysOffset + key * KEY_RECORD_SIZE;
+        int firstEntry = buffer.getInt(record + 12);
+        int count = buffer.getInt(record + 16);
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int entry = entriesOffset + (firstEntry + i) * ENTRY_RECORD_SIZE;
+            entries.add(new Entry(groupId, artifactId, readString(buffer.getInt(entry)),
+                    readString(buffer.getInt(entry + 4)), readString(buffer.getInt(entry + 8))));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the version the BOM manages for the given ids, or
+     * <code>null</code> if the BOM does not manage them.  When the BOM has
+     * several dependencies with these ids, the version of the first one
+     * without a classifier is returned, or else the version of the first one.
+     */
+    public String findVersion(String groupId, String artifactId) {
+        List<Entry> entries = find(groupId, artifactId);
+        if (entries.isEmpty()) {
+            return null;
+        }
+        for (Entry entry : entries) {
+            if (entry.getClassifier() == null) {
+                return entry.getVersion();
+            }
+        }
+        return entries.get(0).getVersion();
+    }
+
+    private int findKey(String groupId, String artifactId) {
+        int hash = hash(groupId, artifactId);
+        byte[] groupIdBytes = null;
+        byte[] artifactIdBytes = null;
+        for (int slot = spread(hash) & slotMask; ; slot = (slot + 1) & slotMask) {
+            int value = buffer.getInt(HEADER_SIZE + slot * SLOT_SIZE);
+            if (value == 0) {
+                return -1;
+            }
+            int key = value - 1;
+            int record = keysOffset + key * KEY_RECORD_SIZE;
+            if (buffer.getInt(record) != hash) {
+                continue;
+            }
+            if (groupIdBytes == null) {
+                groupIdBytes = groupId.getBytes(StandardCharsets.UTF_8);
+                artifactIdBytes = artifactId.getBytes(StandardCharsets.UTF_8);
+            }
+            if (stringEquals(buffer.getInt(record + 4), groupIdBytes)
+                    && stringEquals(buffer.getInt(record + 8), artifactIdBytes)) {
+                return key;
+            }
+        }
+    }
+
+    private boolean stringEquals(int offset, byte[] bytes) {
+        if (buffer.getInt(offset) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(offset + 4 + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(int offset) {
+        if (offset == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        ByteBuffer string = buffer.duplicate();
+        // through Buffer, whose position(int) also exists before Java 9
+        ((Buffer) string).position(offset + 4);
+        string.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int hash(String groupId, String artifactId) {
+        return 31 * groupId.hashCode() + artifactId.hashCode();
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A dependency of the BOM.
+     */
+    public static final class Entry {
+
+        private final String groupId;
+
+        private final String artifactId;
+
+        private final String version;
+
+        private final String type;
+
+        private final String classifier;
+
+        Entry(String groupId, String artifactId, String version, String type, String classifier) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+            this.type = type;
+            this.classifier = classifier;
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * The classifier, or <code>null</code> if there is none.
+         */
+        public String getClassifier() {
+            return classifier;
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ":" + artifactId + ":" + type + (classifier == null ? "" : ":" + classifier) + ":" + version;
+        }
+    }
+
+    /**
+     * Collects the dependencies of a BOM and writes their index.
+     */
+    static final class Builder {
+
+        private final Map<GroupArtifactKey, List<String[]>> dependencies = new TreeMap<>();
+
+        private int entryCount;
+
+        /**
+         * Adds a dependency.  The type defaults to jar, and an empty
+         * classifier is no classifier.
+         */
+        void add(String groupId, String artifactId, String version, String type, String classifier) {
+            GroupArtifactKey key = new GroupArtifactKey(groupId, artifactId);
+            List<String[]> entries = dependencies.get(key);
+            if (entries == null) {
+                entries = new ArrayList<>(1);
+                dependencies.put(key, entries);
+            }
+            entries.add(new String[] {version, type == null || type.isEmpty() ? "jar" : type,
+                    classifier == null || classifier.isEmpty() ? null : classifier});
+            entryCount++;
+        }
+
+        /**
+         * Writes the index, leaving an existing file with the same content
+         * untouched.
+         *
+         * @return <code>true</code> if the file was written,
+         *         <code>false</code> if it already had the same content
+         */
+        boolean write(File file) throws IOException {
+            return write(file, null);
+        }
+
+        /**
+         * Writes the index like {@link #write(File)}, giving its bytes to the
+         * recorder unless it is <code>null</code>.
+         */
+        boolean write(File file, OutputFiles.Recorder recorder) throws IOException {
+            return OutputFiles.writeIfChanged(file, toBytes(), recorder);
+        }
+
+        byte[] toBytes() {
+            int keyCount = dependencies.size();
+            int slotCount = Integer.highestOneBit(Math.max(2, keyCount * 2) - 1) << 1;
+            int keysOffset = HEADER_SIZE + slotCount * SLOT_SIZE;
+            int entriesOffset = keysOffset + keyCount * KEY_RECORD_SIZE;
+            int stringsOffset = entriesOffset + entryCount * ENTRY_RECORD_SIZE;
+
+            StringTable strings = new StringTable(stringsOffset);
+            int[] keyRecords = new int[keyCount * 5];
+            int[] entryRecords = new int[entryCount * 3];
+            int key = 0;
+            int entry = 0;
+            for (Map.Entry<GroupArtifactKey, List<String[]>> dependency : dependencies.entrySet()) {
+                GroupArtifactKey ids = dependency.getKey();
+                keyRecords[key * 5] = hash(ids.getGroupId(), ids.getArtifactId());
+                keyRecords[key * 5 + 1] = strings.offsetOf(ids.getGroupId());
+                keyRecords[key * 5 + 2] = strings.offsetOf(ids.getArtifactId());
+                keyRecords[key * 5 + 3] = entry;
+                keyRecords[key * 5 + 4] = dependency.getValue().size();
+                for (String[] values : dependency.getValue()) {
+                    for (int i = 0; i < 3; i++) {
+                        entryRecords[entry * 3 + i] = values[i] == null ? NO_STRING : strings.offsetOf(values[i]);
+                    }
+                    entry++;
+                }
+                key++;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(strings.end);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(entryCount).putInt(keyCount).putInt(slotCount);
+            int slotMask = slotCount - 1;
+            for (key = 0; key < keyCount; key++) {
+                int slot = spread(keyRecords[key * 5]) & slotMask;
+                while (buffer.getInt(HEADER_SIZE + slot * SLOT_SIZE) != 0) {
+                    slot = (slot + 1) & slotMask;
+                }
+                buffer.putInt(HEADER_SIZE + slot * SLOT_SIZE, key + 1);
+            }
+            ((Buffer) buffer).position(keysOffset);
+            for (int value : keyRecords) {
+                buffer.putInt(value);
+            }
+            for (int value : entryRecords) {
+                buffer.putInt(value);
+            }
+            for (byte[] string : strings.strings) {
+                buffer.putInt(string.length).put(string);
+            }
+            return buffer.array();
+        }
+
+    }
+
+    /**
+     * The strings of an index being built, each stored once.
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        private final List<byte[]> strings = new ArrayList<>();
+
+        private int end;
+
+        private StringTable(int start) {
+            this.end = start;
+        }
+
+        /**
+         * Returns the offset of the string in the index, adding it if it is
+         * new.
+         */
+        private int offsetOf(String value) {
+            Integer offset = offsets.get(value);
+            if (offset == null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                offset = end;
+                offsets.put(value, offset);
+                strings.add(bytes);
+                end += 4 + bytes.length;
+            }
+            return offset;
+        }
+    }
+
+}
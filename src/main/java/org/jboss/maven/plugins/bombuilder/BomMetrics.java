@@ -0,0 +1,236 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * Wall time and allocated bytes of each phase of a BOM generation, and the
+ * number of artifacts going through it.
+ *
+ * The allocated bytes are those of the thread running the phase, as reported
+ * by the HotSpot thread MXBean.  They are unknown when the JVM does not
+ * provide them or when the phase ran on several threads, and are then left
+ * out of the summary and written as <code>null</code> in the JSON report.
+ */
+class BomMetrics {
+
+    /**
+     * The allocated bytes of a phase which could not be measured.
+     */
+    static final long UNKNOWN_BYTES = -1;
+
+    enum Phase {
+        /** Collecting and sorting the resolved artifacts */
+        COLLECT("collect"),
+        /** Removing the excluded dependencies */
+        FILTER("filter"),
+        /** Creating the dependencies and applying the BOM exclusions */
+        EXCLUSIONS("exclusions"),
+        /** Planning the version properties */
+        PROPERTIES("properties"),
+        /** Writing the BOM */
+        WRITE("write");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Measures a phase until it is closed.
+     */
+    final class Timer implements AutoCloseable {
+
+        private final Phase phase;
+
+        private final long startNanos;
+
+        private final long startAllocatedBytes;
+
+        private Timer(Phase phase) {
+            this.phase = phase;
+            this.startAllocatedBytes = currentThreadAllocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - startNanos;
+            long allocated = startAllocatedBytes < 0 ? UNKNOWN_BYTES : currentThreadAllocatedBytes() - startAllocatedBytes;
+            record(phase, elapsed, allocated);
+        }
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final long[] wallNanos = new long[Phase.values().length];
+
+    private final long[] allocatedBytes = new long[Phase.values().length];
+
+    private int artifactsSeen;
+
+    private int artifactsExcluded;
+
+    private int dependenciesWritten;
+
+    private int propertiesGenerated;
+
+    Timer time(Phase phase) {
+        return new Timer(phase);
+    }
+
+    void record(Phase phase, long nanos, long bytes) {
+        wallNanos[phase.ordinal()] += nanos;
+        if (bytes < 0 || allocatedBytes[phase.ordinal()] < 0) {
+            allocatedBytes[phase.ordinal()] = UNKNOWN_BYTES;
+        } else {
+            allocatedBytes[phase.ordinal()] += bytes;
+        }
+    }
+
+    /**
+     * Adds the phases measured by another instance, such as the artifact
+     * collection shared by several BOMs.
+     */
+    void include(BomMetrics other) {
+        for (Phase phase : Phase.values()) {
+            record(phase, other.wallNanos[phase.ordinal()], other.allocatedBytes[phase.ordinal()]);
+        }
+    }
+
+    long getWallNanos(Phase phase) {
+        return wallNanos[phase.ordinal()];
+    }
+
+    /**
+     * The allocated bytes of the phase, or {@link #UNKNOWN_BYTES}.
+     */
+    long getAllocatedBytes(Phase phase) {
+        return allocatedBytes[phase.ordinal()];
+    }
+
+    int getArtifactsSeen() {
+        return artifactsSeen;
+    }
+
+    void setArtifactsSeen(int artifactsSeen) {
+        this.artifactsSeen = artifactsSeen;
+    }
+
+    int getArtifactsExcluded() {
+        return artifactsExcluded;
+    }
+
+    void setArtifactsExcluded(int artifactsExcluded) {
+        this.artifactsExcluded = artifactsExcluded;
+    }
+
+    int getDependenciesWritten() {
+        return dependenciesWritten;
+    }
+
+    void setDependenciesWritten(int dependenciesWritten) {
+        this.dependenciesWritten = dependenciesWritten;
+    }
+
+    int getPropertiesGenerated() {
+        return propertiesGenerated;
+    }
+
+    void setPropertiesGenerated(int propertiesGenerated) {
+        this.propertiesGenerated = propertiesGenerated;
+    }
+
+    /**
+     * Returns a one line summary, for example
+     * <code>120 artifacts, 3 excluded, 117 written, 12 properties; collect 4 ms (1.2 MB), ...</code>
+     */
+    String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(artifactsSeen).append(" artifacts, ")
+                .append(artifactsExcluded).append(" excluded, ")
+                .append(dependenciesWritten).append(" written, ")
+                .append(propertiesGenerated).append(" properties;");
+        String separator = " ";
+        for (Phase phase : Phase.values()) {
+            summary.append(separator).append(phase.label).append(' ')
+                    .append(wallNanos[phase.ordinal()] / 1000000).append(" ms");
+            long bytes = allocatedBytes[phase.ordinal()];
+            if (bytes >= 0) {
+                summary.append(String.format(Locale.ENGLISH, " (%.1f MB)", bytes / (1024.0 * 1024.0)));
+            }
+            separator = ", ";
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Writes the metrics as a JSON object, leaving the file untouched when it
+     * has the same content.
+     *
+     * @param recorder the recorder of the written bytes, or <code>null</code>
+     */
+    void writeJson(File reportFile, final String bom, OutputFiles.Recorder recorder) throws IOException {
+        OutputFiles.writeIfChanged(reportFile, new OutputFiles.Content() {
+            @Override
+            public void writeTo(Writer writer) throws IOException {
+                writeJson(writer, bom);
+            }
+        }, recorder);
+    }
+
+    void writeJson(Writer writer, String bom) throws IOException {
+        writer.write("{\n");
+        writer.write("  \"bom\": " + quote(bom) + ",\n");
+        writer.write("  \"artifactsSeen\": " + artifactsSeen + ",\n");
+        writer.write("  \"artifactsExcluded\": " + artifactsExcluded + ",\n");
+        writer.write("  \"dependenciesWritten\": " + dependenciesWritten + ",\n");
+        writer.write("  \"propertiesGenerated\": " + propertiesGenerated + ",\n");
+        writer.write("  \"phases\": {");
+        String separator = "\n";
+        for (Phase phase : Phase.values()) {
+            writer.write(separator);
+            long bytes = allocatedBytes[phase.ordinal()];
+            writer.write("    " + quote(phase.label) + ": { \"wallTimeNanos\": " + wallNanos[phase.ordinal()]
+                    + ", \"allocatedBytes\": " + (bytes < 0 ? "null" : String.valueOf(bytes)) + " }");
+            separator = ",\n";
+        }
+        writer.write("\n  }\n");
+        writer.write("}\n");
+    }
+
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return UNKNOWN_BYTES;
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+
+/**
+ * The files written next to a BOM, named after its output file without the
+ * .xml extension.
+ */
+class BomOutputs {
+
+    private static final String FINGERPRINT_DIRECTORY = "bom-builder/";
+
+    private final String buildDirectory;
+
+    private final String outputFilename;
+
+    private final String basename;
+
+    BomOutputs(String buildDirectory, String outputFilename) {
+        this.buildDirectory = buildDirectory;
+        this.outputFilename = outputFilename;
+        this.basename = outputFilename.endsWith(".xml")
+                ? outputFilename.substring(0, outputFilename.length() - ".xml".length())
+                : outputFilename;
+    }
+
+    File getBomFile() {
+        return new File(buildDirectory, outputFilename);
+    }
+
+    File getIndexFile() {
+        return new File(buildDirectory, basename + ".idx");
+    }
+
+    File getDiffFile() {
+        return new File(buildDirectory, basename + "-diff.json");
+    }
+
+    File getMetricsReportFile() {
+        return new File(buildDirectory, basename + "-metrics.json");
+    }
+
+    File getFormatFile(BomFormatWriter formatWriter) {
+        return new File(buildDirectory, basename + formatWriter.getFileSuffix());
+    }
+
+    /**
+     * The file holding the fingerprint of the last incremental generation.
+     */
+    File getFingerprintFile() {
+        return new File(buildDirectory, FINGERPRINT_DIRECTORY + outputFilename + ".sha256");
+    }
+
+}
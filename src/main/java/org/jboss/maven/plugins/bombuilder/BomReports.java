@@ -0,0 +1,89 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Properties;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Writes the reports derived from a written BOM: its {@link BomIndex}, its
+ * {@link BomDiff} with a previous BOM and its {@link BomMetrics}.
+ */
+class BomReports {
+
+    private final BomDefinition definition;
+
+    private final BomOutputs outputs;
+
+    private final Log log;
+
+    private final OutputFiles.Recorder recorder;
+
+    /**
+     * @param recorder the recorder of the files written by the generation, or
+     *        <code>null</code>
+     */
+    BomReports(BomDefinition definition, BomOutputs outputs, Log log, OutputFiles.Recorder recorder) {
+        this.definition = definition;
+        this.outputs = outputs;
+        this.log = log;
+        this.recorder = recorder;
+    }
+
+    void writeIndex(Iterable<BomDiff.Entry> dependencies) throws MojoExecutionException {
+        BomIndex.Builder index = new BomIndex.Builder();
+        for (BomDiff.Entry dependency : dependencies) {
+            index.add(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(),
+                    dependency.getType(), dependency.getClassifier());
+        }
+        File indexFile = outputs.getIndexFile();
+        try {
+            index.write(indexFile, recorder);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write " + indexFile, e);
+        }
+    }
+
+    /**
+     * Compares the previous BOM with the new one, writing the changes as JSON,
+     * and logs a summary.  A missing previous BOM only logs a warning, as
+     * there is none before the first release, and so does a previous BOM
+     * whose dependencies are not sorted, e.g. one not written by this plugin.
+     *
+     * @param dependencies the dependencies of the BOM, sorted by groupId and
+     *        artifactId
+     */
+    void writeDiff(Iterator<BomDiff.Entry> dependencies, Properties bomProperties) throws MojoExecutionException {
+        File previousBom = definition.getPreviousBom();
+        if (!previousBom.isFile()) {
+            log.warn("Previous BOM " + previousBom + " does not exist, the changes of " + definition + " are not reported");
+            return;
+        }
+        File diffFile = outputs.getDiffFile();
+        try {
+            BomDiff diff = BomDiff.write(diffFile, definition.toString(), previousBom, dependencies, bomProperties,
+                    recorder);
+            log.info("BOM " + definition + " changes since " + previousBom + ": " + diff.toSummary());
+        } catch (BomDiff.UnsortedBomException e) {
+            log.warn("The changes of " + definition + " since " + previousBom + " are not reported: " + e.getMessage());
+            // the report of a previous build would not describe this one
+            diffFile.delete();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to compare " + definition + " with " + previousBom + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    void writeMetrics(BomMetrics metrics) throws MojoExecutionException {
+        File reportFile = outputs.getMetricsReportFile();
+        try {
+            metrics.writeJson(reportFile, definition.toString(), recorder);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write " + reportFile, e);
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Checks the dependencies of a BOM with a {@link RepositoryVerifier}, failing
+ * the build with the list of all the missing ones.
+ */
+class BomVerification {
+
+    private final RepositoryVerifier repositoryVerifier;
+
+    private final BomDefinition definition;
+
+    private final Log log;
+
+    BomVerification(RepositoryVerifier repositoryVerifier, BomDefinition definition, Log log) {
+        this.repositoryVerifier = repositoryVerifier;
+        this.definition = definition;
+        this.log = log;
+    }
+
+    void verify(Iterable<BomDiff.Entry> dependencies) throws MojoExecutionException, MojoFailureException {
+        RepositoryVerifier.Batch batch = new RepositoryVerifier.Batch();
+        for (BomDiff.Entry dependency : dependencies) {
+            batch.add(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(),
+                    dependency.getType(), dependency.getClassifier());
+        }
+        RepositoryVerifier.Report report;
+        try {
+            report = repositoryVerifier.verify(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while verifying the dependencies of " + definition, e);
+        }
+        if (!report.isComplete()) {
+            throw new MojoFailureException("BOM " + definition + ": " + report);
+        }
+        log.info("BOM " + definition + ": the " + report.getChecked() + " dependencies exist in "
+                + repositoryVerifier.getRepository());
+    }
+
+}
@@ -1,22 +1,32 @@
 package org.jboss.maven.plugins.bombuilder;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.maven.artifact.Artifact;
-import org.apache.maven.model.Dependency;
-import org.apache.maven.model.DependencyManagement;
 import org.apache.maven.model.Exclusion;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.building.ModelBuilder;
 import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.AbstractMojoExecutionException;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -26,47 +36,47 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuilder;
 import org.codehaus.plexus.util.StringUtils;
 
-import static org.codehaus.plexus.util.StringUtils.defaultString;
-import static org.codehaus.plexus.util.StringUtils.trim;
-
 /**
  * Build a BOM based on the dependencies in a GAV
+ *
+ * The mojo keeps the state of an execution in its own instance and shares
+ * no mutable state between the projects of a parallel build, so it is
+ * thread safe.
  */
-@Mojo( name = "build-bom", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, requiresDependencyResolution = ResolutionScope.COMPILE )
+@Mojo( name = "build-bom", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = true )
 public class BuildBomMojo
     extends AbstractMojo
 {
 
-    private static final String VERSION_PROPERTY_PREFIX = "version.";
     /**
-     * BOM groupId
+     * BOM groupId, required unless <code>boms</code> is set
      */
-    @Parameter( required = true )
-    private String bomGroupId;
+    @Parameter
+    String bomGroupId;
 
     /**
-     * BOM artifactId
+     * BOM artifactId, required unless <code>boms</code> is set
      */
-    @Parameter( required = true )
-    private String bomArtifactId;
+    @Parameter
+    String bomArtifactId;
 
     /**
-     * BOM version
+     * BOM version, required unless <code>boms</code> is set
      */
-    @Parameter( required = true )
-    private String bomVersion;
+    @Parameter
+    String bomVersion;
 
     /**
      * BOM name
      */
     @Parameter( defaultValue = "" )
-    private String bomName;
+    String bomName;
 
     /**
-     * BOM name
+     * Whether the BOM should define version properties for its dependencies
      */
     @Parameter
-    private boolean addVersionProperties;
+    boolean addVersionProperties;
 
    /**
      * BOM description
@@ -86,13 +96,13 @@ public class BuildBomMojo
      * will not be copied to the new BOM.
      */
     @Parameter
-    private List<BomExclusion> exclusions;
+    List<BomExclusion> exclusions;
 
     /**
      * List of dependencies which should not be added to BOM
      */
     @Parameter
-    private List<DependencyExclusion> dependencyExclusions;
+    List<DependencyExclusion> dependencyExclusions;
 
 
     /**
@@ -101,6 +111,167 @@ public class BuildBomMojo
     @Parameter
     boolean usePropertiesForVersion;
 
+    /**
+     * Whether groupIds whose artifacts all have the same version share the
+     * version property of a groupId which is a dotted prefix of them, e.g.
+     * io.netty.incubator shares the property of io.netty
+     */
+    @Parameter
+    boolean shareVersionProperties;
+
+    /**
+     * A previous version of the BOM, e.g. the BOM of the last release.  The
+     * dependencies added, removed, upgraded and downgraded since then and the
+     * changed properties are logged and written as JSON next to the BOM, in
+     * <code>&lt;outputFilename without .xml&gt;-diff.json</code>.
+     */
+    @Parameter
+    File previousBom;
+
+    /**
+     * BOMs to generate from the same resolved artifacts.  Each entry takes the
+     * same settings as the single BOM configured by the parameters above,
+     * which are ignored when this list is set.  The artifacts are sorted once
+     * and the BOMs are written concurrently.
+     */
+    @Parameter
+    List<BomDefinition> boms;
+
+    /**
+     * The order of the dependencies in the BOMs: <code>ga</code> by groupId,
+     * artifactId, type, classifier and version, <code>group-size</code> by
+     * groupId with the groupIds having the most artifacts first, or
+     * <code>scope</code> by scope, compile first and test last, then by
+     * groupId and artifactId.  A BOM can only be compared with its
+     * <code>previousBom</code> in the <code>ga</code> order.
+     */
+    @Parameter( defaultValue = "ga" )
+    String artifactOrder;
+
+    /**
+     * The maximum number of <code>boms</code> written at the same time.
+     * Defaults to the number of available processors.
+     */
+    @Parameter
+    int bomThreads;
+
+    /**
+     * Whether the BOM should be written while the sorted artifacts are visited,
+     * instead of building the whole model first.  The output is the same, but
+     * the memory used no longer grows with the size of the generated model.
+     */
+    @Parameter
+    boolean streamOutput;
+
+    /**
+     * Whether the BOM and its other files are not written again when neither
+     * the resolved artifacts nor the configuration changed since the previous
+     * build.  A fingerprint of both is kept in the build directory.  The BOM
+     * is still compared with the previous BOM and verified against the
+     * repository.
+     */
+    @Parameter( defaultValue = "false" )
+    boolean incremental;
+
+    /**
+     * Whether the compiled exclusion rules, the planned version properties
+     * and the files of the last generation of each BOM are kept in memory by
+     * the plugin class loader, which a persistent Maven daemon such as mvnd
+     * reuses between builds.  An <code>incremental</code> BOM whose
+     * fingerprint did not change is then written from memory after a clean
+     * instead of being generated again, and a BOM whose artifacts changed
+     * without changing their versions reuses its version properties.  A plain
+     * Maven build drops the cache on exit, so it is only worth enabling with a
+     * daemon.
+     */
+    @Parameter
+    boolean daemonCache;
+
+    /**
+     * Whether the entries of the project dependency management, including
+     * those of the BOMs it imports, are added to the BOM next to the resolved
+     * dependencies, so that consumers do not have to import those BOMs.
+     */
+    @Parameter
+    boolean flattenDependencyManagement;
+
+    /**
+     * Whether the excluded dependencies are filtered out and the remaining
+     * artifacts turned into dependencies on several threads.  The BOM is the
+     * same as without it.
+     */
+    @Parameter
+    boolean parallelProjection;
+
+    /**
+     * The number of threads of the <code>parallelProjection</code>.  Defaults
+     * to the number of available processors.
+     */
+    @Parameter
+    int parallelThreads;
+
+    /**
+     * The number of artifacts up to which a BOM is projected serially even
+     * with <code>parallelProjection</code>, which is also the smallest number
+     * of artifacts processed by one task.
+     */
+    @Parameter( defaultValue = "4096" )
+    int parallelThreshold;
+
+    /**
+     * Whether the metrics of each BOM (time and memory allocated by each
+     * phase, artifact and property counts) are written as JSON next to the
+     * BOM, in <code>&lt;outputFilename without .xml&gt;-metrics.json</code>.
+     * A one line summary is then logged, and otherwise only at debug level.
+     */
+    @Parameter
+    boolean metricsReport;
+
+    /**
+     * Whether a binary index of the dependencies of each BOM is written next
+     * to it, in <code>&lt;outputFilename without .xml&gt;.idx</code>.  Tools
+     * can look up the version of an artifact with {@link BomIndex} without
+     * parsing the BOM.
+     */
+    @Parameter
+    boolean binaryIndex;
+
+    /**
+     * The other formats each BOM is written in, next to it, from the same
+     * dependencies and version properties:
+     * <ul>
+     *   <li><code>gradle-platform</code>, the build script of a Gradle
+     *   java-platform project, in
+     *   <code>&lt;outputFilename without .xml&gt;-platform.gradle.kts</code></li>
+     *   <li><code>version-catalog</code>, a Gradle version catalog, in
+     *   <code>&lt;outputFilename without .xml&gt;.versions.toml</code></li>
+     *   <li><code>json</code>, in
+     *   <code>&lt;outputFilename without .xml&gt;.json</code></li>
+     * </ul>
+     * The formats are written concurrently.
+     */
+    @Parameter
+    List<String> outputFormats;
+
+    /**
+     * A repository in which every dependency of the BOM must exist, as a
+     * <code>file:</code> URL or a directory with the Maven repository layout,
+     * e.g. <code>${settings.localRepository}</code>.  Once the BOM is written,
+     * or found up to date by an incremental build, the POM and the file of
+     * each dependency are looked up, and the build fails with the list of all
+     * the missing ones.
+     */
+    @Parameter
+    String verifyRepository;
+
+    /**
+     * The number of repository directories listed at the same time by the
+     * <code>verifyRepository</code> check, on virtual threads when the JVM
+     * has them.  Defaults to four times the number of available processors.
+     */
+    @Parameter
+    int verifyThreads;
+
     /**
      * The current project
      */
@@ -117,10 +288,22 @@ public class BuildBomMojo
      *
      */
     @Component
-    private ProjectBuilder projectBuilder;
+    ProjectBuilder projectBuilder;
+
+    /**
+     * The descriptor of this plugin, whose version is part of the fingerprint
+     */
+    @Parameter( defaultValue = "${plugin}", readonly = true )
+    private PluginDescriptor plugin;
 
     private final PomDependencyVersionsTransformer versionsTransformer;
     private final ModelWriter modelWriter;
+    private final StreamingBomWriter streamingWriter = new StreamingBomWriter();
+    private ForkJoinPool projectionPool;
+    private Map<String, List<Exclusion>> managedExclusions = Collections.emptyMap();
+    private CoordinatePool coordinatePool = new CoordinatePool();
+    private RepositoryVerifier repositoryVerifier;
+    private List<BomFormatWriter> formatWriters = Collections.emptyList();
     
     public BuildBomMojo() {
         this(new ModelWriter(), new PomDependencyVersionsTransformer());
@@ -132,142 +315,352 @@ public class BuildBomMojo
     }
 
     public void execute()
-        throws MojoExecutionException
+        throws MojoExecutionException, MojoFailureException
     {
-        getLog().debug( "Generating BOM" );
-        Model model = initializeModel();
-        addDependencyManagement( model );
-        if (usePropertiesForVersion) {
-            model = versionsTransformer.transformPomModel(model);
-            getLog().debug( "Dependencies versions converted to properties" );
+        List<BomDefinition> definitions = getBomDefinitions();
+        ArtifactOrder order = getArtifactOrder( definitions );
+        startExecution();
+        BomMetrics collectMetrics = new BomMetrics();
+        List<Artifact> projectArtifacts;
+        try ( BomMetrics.Timer timer = collectMetrics.time( BomMetrics.Phase.COLLECT ) )
+        {
+            projectArtifacts = getSortedArtifacts();
+            if ( flattenDependencyManagement )
+            {
+                FlattenedDependencyManagement flattened =
+                    FlattenedDependencyManagement.flatten( projectArtifacts, mavenProject.getDependencyManagement(), getLog() );
+                projectArtifacts = flattened.getSortedArtifacts();
+                managedExclusions = flattened.getExclusions();
+            }
+            if ( order != ArtifactOrder.GA )
+            {
+                projectArtifacts = new ArrayList<Artifact>( projectArtifacts );
+                order.sort( projectArtifacts );
+            }
+        }
+        String buildDirectory = mavenProject.getBuild().getDirectory();
+
+        if ( parallelProjection && projectArtifacts.size() > parallelThreshold )
+        {
+            projectionPool =
+                new ForkJoinPool( parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors() );
+        }
+        try
+        {
+            if ( definitions.size() == 1 )
+            {
+                BomGenerator generator = createGenerator( definitions.get( 0 ) );
+                generator.getMetrics().include( collectMetrics );
+                generator.generate( projectArtifacts, buildDirectory );
+                return;
+            }
+            generateConcurrently( definitions, projectArtifacts, buildDirectory, collectMetrics );
+        }
+        finally
+        {
+            if ( projectionPool != null )
+            {
+                projectionPool.shutdown();
+                projectionPool = null;
+            }
         }
-        modelWriter.writeModel(model, new File(mavenProject.getBuild().getDirectory(), outputFilename));
     }
 
-    private Model initializeModel()
+    /**
+     * Resets the state of one execution, in case the mojo instance is executed
+     * again, and creates the verifier and the format writers shared by its
+     * generators.
+     */
+    void startExecution()
+        throws MojoExecutionException
     {
-        Model pomModel = new Model();
-        pomModel.setModelVersion( "4.0.0" );
-
-        pomModel.setGroupId( bomGroupId );
-        pomModel.setArtifactId( bomArtifactId );
-        pomModel.setVersion( bomVersion );
-        pomModel.setPackaging( "pom" );
-
-        pomModel.setName( bomName );
-        pomModel.setDescription( bomDescription );
-
-        pomModel.setProperties(new OrderedProperties());
-        pomModel.getProperties().setProperty( "project.build.sourceEncoding", "UTF-8" );
-
-        return pomModel;
+        managedExclusions = Collections.emptyMap();
+        coordinatePool = new CoordinatePool();
+        repositoryVerifier = createRepositoryVerifier();
+        formatWriters = createFormatWriters();
     }
 
-    private void addDependencyManagement( Model pomModel )
+    /**
+     * Returns the configured <code>boms</code>, or the single BOM configured by
+     * the top level parameters.
+     */
+    List<BomDefinition> getBomDefinitions()
+        throws MojoExecutionException
     {
-        // Sort the artifacts for readability
-        List<Artifact> projectArtifacts = new ArrayList<Artifact>( mavenProject.getArtifacts() );
-        Collections.sort( projectArtifacts );
-
-        Properties versionProperties = new Properties();
-        DependencyManagement depMgmt = new DependencyManagement();
-        for ( Artifact artifact : projectArtifacts )
+        if ( boms == null || boms.isEmpty() )
         {
-            if (isExcludedDependency(artifact)) {
-                continue;
-            }
-
-            String versionPropertyName = VERSION_PROPERTY_PREFIX + artifact.getGroupId();
-            if (versionProperties.getProperty(versionPropertyName) != null
-                && !versionProperties.getProperty(versionPropertyName).equals(artifact.getVersion())) {
-                versionPropertyName = VERSION_PROPERTY_PREFIX + artifact.getGroupId() + "." + artifact.getArtifactId();
-            }
-            versionProperties.setProperty(versionPropertyName, artifact.getVersion());
-
-            Dependency dep = new Dependency();
-            dep.setGroupId( artifact.getGroupId() );
-            dep.setArtifactId( artifact.getArtifactId() );
-            dep.setVersion( artifact.getVersion() );
-            if ( !StringUtils.isEmpty( artifact.getClassifier() ))
+            BomDefinition definition = getDefaultBomDefinition();
+            validate( definition );
+            return Collections.singletonList( definition );
+        }
+        Set<String> outputFilenames = new HashSet<String>();
+        for ( BomDefinition definition : boms )
+        {
+            validate( definition );
+            if ( !outputFilenames.add( definition.getOutputFilename() ) )
             {
-                dep.setClassifier( artifact.getClassifier() );
+                throw new MojoExecutionException( "Several BOMs are written to " + definition.getOutputFilename() );
             }
-            if ( !StringUtils.isEmpty( artifact.getType() ))
+        }
+        return boms;
+    }
+
+    /**
+     * Returns the configured <code>artifactOrder</code>, checking that the BOMs
+     * compared with a previous BOM are in the <code>ga</code> order.
+     */
+    private ArtifactOrder getArtifactOrder( List<BomDefinition> definitions )
+        throws MojoExecutionException
+    {
+        ArtifactOrder order = ArtifactOrder.parse( artifactOrder == null ? "ga" : artifactOrder );
+        if ( order == null )
+        {
+            throw new MojoExecutionException( "Unknown artifactOrder " + artifactOrder
+                + ", expected ga, group-size or scope" );
+        }
+        if ( order != ArtifactOrder.GA )
+        {
+            for ( BomDefinition definition : definitions )
             {
-                dep.setType( artifact.getType() );
+                if ( definition.getPreviousBom() != null )
+                {
+                    throw new MojoExecutionException( "BOM " + definition + " can only be compared with "
+                        + definition.getPreviousBom() + " in the ga artifactOrder, not " + order.getName() );
+                }
             }
-            if (exclusions != null) {
-                applyExclusions(artifact, dep);
-            }
-            depMgmt.addDependency( dep );
         }
-        pomModel.setDependencyManagement( depMgmt );
-        if (addVersionProperties) {
-            pomModel.getProperties().putAll(versionProperties);
+        return order;
+    }
+
+    private BomDefinition getDefaultBomDefinition()
+    {
+        BomDefinition definition = new BomDefinition();
+        definition.setBomGroupId( bomGroupId );
+        definition.setBomArtifactId( bomArtifactId );
+        definition.setBomVersion( bomVersion );
+        definition.setBomName( bomName );
+        definition.setBomDescription( bomDescription );
+        definition.setOutputFilename( outputFilename );
+        definition.setExclusions( exclusions );
+        definition.setDependencyExclusions( dependencyExclusions );
+        definition.setAddVersionProperties( addVersionProperties );
+        definition.setUsePropertiesForVersion( usePropertiesForVersion );
+        definition.setShareVersionProperties( shareVersionProperties );
+        definition.setPreviousBom( previousBom );
+        return definition;
+    }
+
+    /**
+     * Returns the verifier of the <code>verifyRepository</code>, or
+     * <code>null</code> when none is configured.
+     */
+    private RepositoryVerifier createRepositoryVerifier()
+        throws MojoExecutionException
+    {
+        if ( StringUtils.isEmpty( verifyRepository ) )
+        {
+            return null;
+        }
+        File repository;
+        try
+        {
+            repository = RepositoryVerifier.toDirectory( verifyRepository );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw new MojoExecutionException( e.getMessage(), e );
+        }
+        if ( !repository.isDirectory() )
+        {
+            throw new MojoExecutionException( "The repository " + verifyRepository + " to verify does not exist" );
         }
-        getLog().debug( "Added " + projectArtifacts.size() + " dependencies." );
+        int threads = verifyThreads > 0 ? verifyThreads : 4 * Runtime.getRuntime().availableProcessors();
+        return new RepositoryVerifier( repository, threads );
     }
 
-    boolean isExcludedDependency(Artifact artifact) {
-        if (dependencyExclusions == null || dependencyExclusions.size() == 0) {
-            return false;
+    /**
+     * Returns the writers of the <code>outputFormats</code>.
+     */
+    private List<BomFormatWriter> createFormatWriters()
+        throws MojoExecutionException
+    {
+        if ( outputFormats == null || outputFormats.isEmpty() )
+        {
+            return Collections.emptyList();
         }
-        for (DependencyExclusion exclusion : dependencyExclusions) {
-            if (matchesExcludedDependency(artifact, exclusion)) {
-                getLog().debug( "Artifact " + artifact.getGroupId() + ":" + artifact.getArtifactId() + " matches excluded dependency " + exclusion.getGroupId() + ":" + exclusion.getArtifactId() );
-                return  true;
+        List<BomFormatWriter> writers = new ArrayList<BomFormatWriter>( outputFormats.size() );
+        for ( String outputFormat : new LinkedHashSet<String>( outputFormats ) )
+        {
+            BomFormatWriter writer = BomFormats.get( outputFormat.trim() );
+            if ( writer == null )
+            {
+                throw new MojoExecutionException( "Unknown output format " + outputFormat + ", expected one of "
+                    + BomFormats.getNames() );
             }
+            writers.add( writer );
         }
-        return false;
+        return writers;
     }
 
-    boolean matchesExcludedDependency(Artifact artifact, DependencyExclusion exclusion) {
-        String groupId = defaultAndTrim(artifact.getGroupId());
-        String artifactId = defaultAndTrim(artifact.getArtifactId());
-        String exclusionGroupId = defaultAndTrim(exclusion.getGroupId());
-        String exclusionArtifactId = defaultAndTrim(exclusion.getArtifactId());
-        boolean groupIdMatched = ("*".equals (exclusionGroupId) || groupId.equals(exclusionGroupId));
-        boolean artifactIdMatched = ("*".equals (exclusionArtifactId) || artifactId.equals(exclusionArtifactId));
-        return groupIdMatched && artifactIdMatched;
+    private void validate( BomDefinition definition )
+        throws MojoExecutionException
+    {
+        if ( StringUtils.isEmpty( definition.getBomGroupId() ) || StringUtils.isEmpty( definition.getBomArtifactId() )
+            || StringUtils.isEmpty( definition.getBomVersion() ) )
+        {
+            throw new MojoExecutionException( "bomGroupId, bomArtifactId and bomVersion must be set for BOM " + definition );
+        }
     }
 
-    private String defaultAndTrim(String string) {
-        return defaultString(trim(string), "");
+    BomGenerator createGenerator( BomDefinition definition )
+    {
+        BomGenerator generator = new BomGenerator( definition, modelWriter, versionsTransformer, streamingWriter, getLog(),
+                                                   daemonCache ? GenerationCache.get() : null );
+        generator.setStreamOutput( streamOutput );
+        generator.setIncremental( incremental );
+        generator.setMetricsReport( metricsReport );
+        generator.setBinaryIndex( binaryIndex );
+        generator.setParallelProjection( projectionPool, parallelThreshold );
+        generator.setManagedExclusions( managedExclusions );
+        generator.setCoordinatePool( coordinatePool );
+        generator.setRepositoryVerifier( repositoryVerifier );
+        generator.setFormatWriters( formatWriters );
+        generator.setPluginVersion( getPluginVersion() );
+        return generator;
     }
 
-    private void applyExclusions(Artifact artifact, Dependency dep) {
-        for (BomExclusion exclusion : exclusions) {
-            if (exclusion.getDependencyGroupId().equals(artifact.getGroupId()) &&
-                    exclusion.getDependencyArtifactId().equals(artifact.getArtifactId())) {
-                Exclusion ex = new Exclusion();
-                ex.setGroupId(exclusion.getExclusionGroupId());
-                ex.setArtifactId(exclusion.getExclusionArtifactId());
-                dep.addExclusion(ex);
+    /**
+     * Generates each BOM on its own thread.  All generators share the sorted
+     * artifact list, which none of them modifies.
+     */
+    private void generateConcurrently( List<BomDefinition> definitions, final List<Artifact> projectArtifacts,
+                                       final String buildDirectory, BomMetrics collectMetrics )
+        throws MojoExecutionException, MojoFailureException
+    {
+        int threads = bomThreads > 0 ? bomThreads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, definitions.size() ) );
+        try
+        {
+            List<Future<Void>> results = new ArrayList<Future<Void>>( definitions.size() );
+            for ( BomDefinition definition : definitions )
+            {
+                final BomGenerator generator = createGenerator( definition );
+                generator.getMetrics().include( collectMetrics );
+                results.add( executor.submit( new Callable<Void>()
+                {
+                    @Override
+                    public Void call()
+                        throws MojoExecutionException, MojoFailureException
+                    {
+                        generator.generate( projectArtifacts, buildDirectory );
+                        return null;
+                    }
+                } ) );
             }
+            AbstractMojoExecutionException failure = null;
+            for ( int i = 0; i < results.size(); i++ )
+            {
+                try
+                {
+                    results.get( i ).get();
+                }
+                catch ( ExecutionException e )
+                {
+                    getLog().error( "Unable to generate BOM " + definitions.get( i ) + ": " + e.getCause().getMessage() );
+                    if ( failure == null )
+                    {
+                        failure = e.getCause() instanceof AbstractMojoExecutionException
+                            ? (AbstractMojoExecutionException) e.getCause()
+                            : new MojoExecutionException( "Unable to generate BOM " + definitions.get( i ), e.getCause() );
+                    }
+                }
+            }
+            if ( failure instanceof MojoFailureException )
+            {
+                throw (MojoFailureException) failure;
+            }
+            if ( failure != null )
+            {
+                throw (MojoExecutionException) failure;
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while generating BOMs", e );
+        }
+        finally
+        {
+            executor.shutdownNow();
         }
     }
 
+    String getPluginVersion()
+    {
+        return plugin == null ? null : plugin.getVersion();
+    }
+
+    /**
+     * Returns the artifacts the BOMs are generated from, in the order they are
+     * written.
+     */
+    List<Artifact> getSortedArtifacts()
+        throws MojoExecutionException, MojoFailureException
+    {
+        // Sort the artifacts for readability
+        List<Artifact> projectArtifacts = new ArrayList<Artifact>( mavenProject.getArtifacts() );
+        ArtifactOrder.GA.sort( projectArtifacts );
+        return projectArtifacts;
+    }
 
     static class ModelWriter {
 
-        void writeModel( Model pomModel, File outputFile )
+        /**
+         * Writes the file atomically, with its <code>.sha1</code> and
+         * <code>.sha256</code> checksum files.
+         *
+         * @return <code>true</code> if the file was written, <code>false</code>
+         *         if it already had the same content
+         */
+        boolean writeModel( Model pomModel, File outputFile )
             throws MojoExecutionException
         {
-            if ( !outputFile.getParentFile().exists() )
+            return writeModel( pomModel, outputFile, null );
+        }
+
+        /**
+         * Writes the file like {@link #writeModel(Model, File)}, giving the
+         * bytes of the file and its checksums to the recorder unless it is
+         * <code>null</code>.
+         */
+        boolean writeModel( final Model pomModel, File outputFile, OutputFiles.Recorder recorder )
+            throws MojoExecutionException
+        {
+            try
             {
-                outputFile.getParentFile().mkdirs();
-            }
-            try (FileWriter writer = new FileWriter( outputFile )) {
-                MavenXpp3Writer mavenWriter = new MavenXpp3Writer();
-                mavenWriter.write(writer, pomModel);
+                return OutputFiles.writeWithChecksums( outputFile, new OutputFiles.Content()
+                {
+                    @Override
+                    public void writeTo( Writer writer )
+                        throws IOException
+                    {
+                        writeModel( pomModel, writer );
+                    }
+                }, recorder );
             }
             catch ( IOException e )
             {
-                e.printStackTrace();
                 throw new MojoExecutionException( "Unable to write pom file.", e );
             }
 
         }
+
+        void writeModel( Model pomModel, Writer writer )
+            throws IOException
+        {
+            MavenXpp3Writer mavenWriter = new MavenXpp3Writer();
+            mavenWriter.write(writer, pomModel);
+        }
     }
 
 }
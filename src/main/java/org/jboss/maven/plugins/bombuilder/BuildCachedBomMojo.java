@@ -0,0 +1,161 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.DependencyResolutionResult;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingException;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingResult;
+
+/**
+ * Build a BOM based on the dependencies in a GAV, resolving them only when the
+ * declared dependencies changed since a previous build
+ */
+@Mojo( name = "build-cached-bom", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, threadSafe = true )
+public class BuildCachedBomMojo
+    extends BuildBomMojo
+{
+
+    /**
+     * The directory keeping the resolved artifacts, one file per set of
+     * declared dependencies.  It may be shared by several projects.
+     */
+    @Parameter( defaultValue = "${project.build.directory}/bom-builder/resolution-cache" )
+    File resolutionCacheDirectory;
+
+    /**
+     * The current build session
+     */
+    @Parameter( defaultValue = "${session}", readonly = true )
+    MavenSession session;
+
+    public BuildCachedBomMojo()
+    {
+        super();
+    }
+
+    public BuildCachedBomMojo( ModelWriter modelWriter, PomDependencyVersionsTransformer versionsTransformer )
+    {
+        super( modelWriter, versionsTransformer );
+    }
+
+    /**
+     * Reads the artifacts from the cache, or resolves the project dependencies
+     * and caches their compile, provided and system scoped artifacts, with
+     * their scope.
+     */
+    @Override
+    List<Artifact> getSortedArtifacts()
+        throws MojoExecutionException
+    {
+        File cacheFile = new File( resolutionCacheDirectory, computeResolutionKey() + ".txt" );
+        if ( cacheFile.isFile() )
+        {
+            try
+            {
+                List<Artifact> artifacts = ArtifactCoordinates.readResolved( cacheFile );
+                getLog().debug( "Read " + artifacts.size() + " resolved artifacts from " + cacheFile );
+                ArtifactOrder.GA.sort( artifacts );
+                return artifacts;
+            }
+            catch ( IOException e )
+            {
+                getLog().warn( "Unable to read the resolution cache " + cacheFile + ", resolving the dependencies: "
+                    + e.getMessage() );
+            }
+        }
+
+        List<Artifact> resolvedArtifacts = resolveArtifacts();
+        ArtifactOrder.GA.sort( resolvedArtifacts );
+        try
+        {
+            ArtifactCoordinates.writeResolved( cacheFile, resolvedArtifacts );
+            // the artifacts of a cache hit, so that both runs fingerprint the same artifacts
+            return ArtifactCoordinates.readResolved( cacheFile );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to write the resolution cache " + cacheFile, e );
+        }
+    }
+
+    /**
+     * Hashes the declared dependencies and dependency management of the
+     * effective POM.
+     */
+    private String computeResolutionKey()
+    {
+        List<Dependency> managedDependencies = mavenProject.getDependencyManagement() == null
+            ? null
+            : mavenProject.getDependencyManagement().getDependencies();
+        return new BomFingerprint()
+            .add( "pluginVersion", getPluginVersion() )
+            .add( "format", ArtifactCoordinates.RESOLVED_FORMAT_VERSION )
+            .addDependencies( "dependencies", mavenProject.getDependencies() )
+            .addDependencies( "dependencyManagement", managedDependencies )
+            .toHex();
+    }
+
+    private List<Artifact> resolveArtifacts()
+        throws MojoExecutionException
+    {
+        if ( mavenProject.getFile() == null || session == null )
+        {
+            throw new MojoExecutionException( "The dependencies of " + mavenProject.getId() + " cannot be resolved" );
+        }
+        getLog().info( "Resolving the dependencies of " + mavenProject.getId() );
+        ProjectBuildingRequest request = new DefaultProjectBuildingRequest( session.getProjectBuildingRequest() );
+        request.setResolveDependencies( true );
+        ProjectBuildingResult result;
+        try
+        {
+            result = projectBuilder.build( mavenProject.getFile(), request );
+        }
+        catch ( ProjectBuildingException e )
+        {
+            throw new MojoExecutionException( "Unable to build " + mavenProject.getId(), e );
+        }
+        DependencyResolutionResult resolution = result.getDependencyResolutionResult();
+        if ( resolution != null && !resolution.getUnresolvedDependencies().isEmpty() )
+        {
+            throw new MojoExecutionException( "Unable to resolve " + resolution.getUnresolvedDependencies(),
+                                              resolution.getCollectionErrors().isEmpty()
+                                                  ? null
+                                                  : resolution.getCollectionErrors().get( 0 ) );
+        }
+
+        MavenProject resolvedProject = result.getProject();
+        List<Artifact> artifacts = new ArrayList<Artifact>( resolvedProject.getArtifacts().size() );
+        for ( Artifact artifact : resolvedProject.getArtifacts() )
+        {
+            if ( isCompileClasspathScope( artifact.getScope() ) )
+            {
+                artifacts.add( artifact );
+            }
+        }
+        return artifacts;
+    }
+
+    /**
+     * The scopes resolved by build-bom, which requires the compile resolution
+     * scope.
+     */
+    private static boolean isCompileClasspathScope( String scope )
+    {
+        return scope == null || Artifact.SCOPE_COMPILE.equals( scope ) || Artifact.SCOPE_PROVIDED.equals( scope )
+            || Artifact.SCOPE_SYSTEM.equals( scope );
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Build a BOM based on a list of artifact coordinates
+ */
+@Mojo( name = "build-bom-from-list", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, threadSafe = true )
+public class BuildListBomMojo
+    extends BuildBomMojo
+{
+
+    /**
+     * The file listing the artifacts of the BOM, one
+     * <code>groupId:artifactId[:type[:classifier]]:version</code> per line.
+     * Blank lines and lines starting with # are ignored.
+     */
+    @Parameter( required = true )
+    File coordinateFile;
+
+    public BuildListBomMojo()
+    {
+        super();
+    }
+
+    public BuildListBomMojo( ModelWriter modelWriter, PomDependencyVersionsTransformer versionsTransformer )
+    {
+        super( modelWriter, versionsTransformer );
+    }
+
+    /**
+     * Streams the coordinate list once per BOM, so that only the included
+     * coordinates of one BOM are held in memory at a time.
+     */
+    @Override
+    public void execute()
+        throws MojoExecutionException, MojoFailureException
+    {
+        if ( coordinateFile == null || !coordinateFile.isFile() )
+        {
+            throw new MojoExecutionException( "The coordinate file " + coordinateFile + " does not exist" );
+        }
+        checkUnsupportedParameters();
+        List<BomDefinition> definitions = getBomDefinitions();
+        startExecution();
+        String buildDirectory = mavenProject.getBuild().getDirectory();
+        for ( BomDefinition definition : definitions )
+        {
+            createGenerator( definition ).generateFromCoordinates( coordinateFile, buildDirectory );
+        }
+    }
+
+    /**
+     * Fails on the inherited parameters which would change a BOM generated
+     * from the project but have no meaning for a coordinate list, and warns
+     * about those which are ignored.
+     */
+    private void checkUnsupportedParameters()
+        throws MojoExecutionException
+    {
+        if ( flattenDependencyManagement )
+        {
+            throw new MojoExecutionException( "flattenDependencyManagement is not supported when the BOM is built"
+                + " from " + coordinateFile + ", which has no dependency management" );
+        }
+        if ( artifactOrder != null && ArtifactOrder.parse( artifactOrder ) != ArtifactOrder.GA )
+        {
+            throw new MojoExecutionException( "A BOM built from " + coordinateFile
+                + " can only be in the ga artifactOrder, not " + artifactOrder );
+        }
+        if ( parallelProjection )
+        {
+            getLog().warn( "parallelProjection is ignored when the BOM is built from " + coordinateFile
+                + ", whose lines are filtered while they are read" );
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Build a BOM based on the dependencies of every project in the reactor
+ */
+@Mojo( name = "build-reactor-bom", aggregator = true, defaultPhase = LifecyclePhase.GENERATE_RESOURCES, requiresDependencyResolution = ResolutionScope.COMPILE )
+public class BuildReactorBomMojo
+    extends BuildBomMojo
+{
+
+    /**
+     * The projects in the reactor
+     */
+    @Parameter( defaultValue = "${reactorProjects}", readonly = true )
+    List<MavenProject> reactorProjects;
+
+    /**
+     * How an artifact resolved to different versions by several projects is
+     * added to the BOM: <code>highest</code> keeps the highest version,
+     * <code>first</code> keeps the version of the first project in the reactor
+     * order and <code>fail</code> fails the build.
+     */
+    @Parameter( defaultValue = "highest" )
+    String versionConflictPolicy;
+
+    /**
+     * The maximum number of projects whose artifacts are merged at the same
+     * time.  Defaults to the number of available processors.
+     */
+    @Parameter
+    int mergeThreads;
+
+    public BuildReactorBomMojo()
+    {
+        super();
+    }
+
+    public BuildReactorBomMojo( ModelWriter modelWriter, PomDependencyVersionsTransformer versionsTransformer )
+    {
+        super( modelWriter, versionsTransformer );
+    }
+
+    /**
+     * Merges the resolved artifacts of all reactor projects, keeping one
+     * version of each artifact as configured by the conflict policy.
+     *
+     * @throws MojoFailureException if artifacts are resolved to different
+     *         versions with the <code>fail</code> policy
+     */
+    @Override
+    List<Artifact> getSortedArtifacts()
+        throws MojoExecutionException, MojoFailureException
+    {
+        ReactorArtifactMerger.ConflictPolicy policy =
+            ReactorArtifactMerger.ConflictPolicy.parse( versionConflictPolicy == null ? "highest" : versionConflictPolicy );
+        if ( policy == null )
+        {
+            throw new MojoExecutionException( "Unknown versionConflictPolicy " + versionConflictPolicy
+                + ", expected highest, fail or first" );
+        }
+
+        List<MavenProject> projects = reactorProjects == null || reactorProjects.isEmpty()
+            ? Collections.singletonList( mavenProject )
+            : reactorProjects;
+        List<String> projectIds = new ArrayList<String>( projects.size() );
+        List<Collection<Artifact>> projectArtifacts = new ArrayList<Collection<Artifact>>( projects.size() );
+        int artifactCount = 0;
+        for ( MavenProject project : projects )
+        {
+            projectIds.add( project.getId() );
+            projectArtifacts.add( project.getArtifacts() );
+            artifactCount += project.getArtifacts().size();
+        }
+
+        ReactorArtifactMerger merger = new ReactorArtifactMerger( policy );
+        try
+        {
+            merger.addAll( projectIds, projectArtifacts,
+                           mergeThreads > 0 ? mergeThreads : Runtime.getRuntime().availableProcessors() );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while merging the reactor artifacts", e );
+        }
+
+        List<String> conflicts = merger.getConflicts();
+        if ( !conflicts.isEmpty() )
+        {
+            StringBuilder message = new StringBuilder( "Artifacts are resolved to different versions in the reactor:" );
+            for ( String conflict : conflicts )
+            {
+                message.append( "\n  " ).append( conflict );
+            }
+            throw new MojoFailureException( message.toString() );
+        }
+        getLog().debug( "Merged " + artifactCount + " artifacts of " + projects.size() + " projects into "
+            + merger.size() + " artifacts" );
+        return merger.getSortedArtifacts();
+    }
+
+}
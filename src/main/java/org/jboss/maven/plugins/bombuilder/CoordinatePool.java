@@ -0,0 +1,62 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares the strings and keys which repeat between the dependencies of a BOM.
+ *
+ * The artifacts of a large BOM come from a few thousand groupIds, most have
+ * one of a few types and many share their version, but every resolved
+ * artifact holds its own copy of these strings.  The dependencies, version
+ * property plans and coordinate lists of one execution take their groupIds,
+ * versions, types and classifiers, as well as their
+ * {@link GroupArtifactKey keys}, from a pool so that each distinct value is
+ * retained once.
+ *
+ * Unlike {@link String#intern()} a pool is dropped with the execution which
+ * created it.  It may be used from several threads.
+ */
+class CoordinatePool {
+
+    private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<GroupArtifactKey, GroupArtifactKey> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the pooled string equal to the given one, or <code>null</code>
+     * for <code>null</code>.
+     */
+    String share(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = strings.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    /**
+     * Returns the pooled key of the given ids.  The groupId of a new key is
+     * shared.
+     */
+    GroupArtifactKey key(String groupId, String artifactId) {
+        GroupArtifactKey key = new GroupArtifactKey(share(groupId), artifactId);
+        GroupArtifactKey existing = keys.putIfAbsent(key, key);
+        return existing == null ? key : existing;
+    }
+
+    /**
+     * The number of distinct strings in the pool.
+     */
+    int stringCount() {
+        return strings.size();
+    }
+
+    /**
+     * The number of distinct keys in the pool.
+     */
+    int keyCount() {
+        return keys.size();
+    }
+
+}
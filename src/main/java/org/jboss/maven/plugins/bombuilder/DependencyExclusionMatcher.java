@@ -0,0 +1,42 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.List;
+
+/**
+ * The <code>dependencyExclusions</code> configuration compiled into a
+ * {@link GroupArtifactIndex}, so that checking an artifact does not depend on
+ * the number of configured exclusions.
+ */
+class DependencyExclusionMatcher {
+
+    private final GroupArtifactIndex<DependencyExclusion> index = new GroupArtifactIndex<>();
+
+    private DependencyExclusionMatcher() {
+    }
+
+    static DependencyExclusionMatcher compile(List<DependencyExclusion> exclusions) {
+        DependencyExclusionMatcher matcher = new DependencyExclusionMatcher();
+        if (exclusions != null) {
+            for (DependencyExclusion exclusion : exclusions) {
+                matcher.index.put(exclusion.getGroupId(), exclusion.getArtifactId(), exclusion);
+            }
+        }
+        return matcher;
+    }
+
+    boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /**
+     * Returns a dependency exclusion matching the given ids, or
+     * <code>null</code> if the artifact is not excluded.
+     */
+    DependencyExclusion findMatch(String groupId, String artifactId) {
+        if (index.isEmpty()) {
+            return null;
+        }
+        return index.findFirst(IdPatternMap.normalize(groupId), IdPatternMap.normalize(artifactId));
+    }
+
+}
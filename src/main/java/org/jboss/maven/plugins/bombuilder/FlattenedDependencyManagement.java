@@ -0,0 +1,108 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * The resolved artifacts of a project together with the entries of its
+ * effective dependency management.
+ *
+ * Maven expands the BOMs imported by a project, recursively, while building
+ * its effective model, so the effective dependency management already holds
+ * every imported entry and no import.  An entry is kept once per groupId,
+ * artifactId, type and classifier; a resolved artifact wins over a managed
+ * entry with the same coordinates.  The exclusions declared by the managed
+ * entries are kept, so that the flat BOM excludes what the imported BOMs did.
+ */
+class FlattenedDependencyManagement {
+
+    private final List<Artifact> sortedArtifacts;
+
+    private final Map<String, List<Exclusion>> exclusions;
+
+    private FlattenedDependencyManagement(List<Artifact> sortedArtifacts, Map<String, List<Exclusion>> exclusions) {
+        this.sortedArtifacts = sortedArtifacts;
+        this.exclusions = exclusions;
+    }
+
+    static FlattenedDependencyManagement flatten(List<Artifact> sortedArtifacts, DependencyManagement dependencyManagement,
+                                                 Log log) {
+        if (dependencyManagement == null || dependencyManagement.getDependencies().isEmpty()) {
+            return new FlattenedDependencyManagement(sortedArtifacts, Collections.<String, List<Exclusion>>emptyMap());
+        }
+        Set<String> keys = new HashSet<>(sortedArtifacts.size() * 2);
+        for (Artifact artifact : sortedArtifacts) {
+            keys.add(artifact.getDependencyConflictId());
+        }
+
+        List<Artifact> artifacts = new ArrayList<>(sortedArtifacts);
+        Map<String, List<Exclusion>> exclusions = new HashMap<>();
+        Map<String, ArtifactHandler> handlers = new HashMap<>();
+        int added = 0;
+        for (Dependency dependency : dependencyManagement.getDependencies()) {
+            if ("import".equals(dependency.getScope())) {
+                continue;
+            }
+            if (isBlank(dependency.getVersion())) {
+                log.warn("Managed dependency " + dependency.getManagementKey() + " has no version and is not added to the BOM");
+                continue;
+            }
+            Artifact artifact = createArtifact(dependency, handlers);
+            String key = artifact.getDependencyConflictId();
+            if (!dependency.getExclusions().isEmpty() && !exclusions.containsKey(key)) {
+                exclusions.put(key, dependency.getExclusions());
+            }
+            if (keys.add(key)) {
+                artifacts.add(artifact);
+                added++;
+            }
+        }
+        ArtifactOrder.GA.sort(artifacts);
+        log.debug("Added " + added + " managed dependencies");
+        return new FlattenedDependencyManagement(artifacts, exclusions);
+    }
+
+    List<Artifact> getSortedArtifacts() {
+        return sortedArtifacts;
+    }
+
+    /**
+     * The exclusions of the managed entries, by
+     * {@link Artifact#getDependencyConflictId() dependency conflict id}.
+     */
+    Map<String, List<Exclusion>> getExclusions() {
+        return exclusions;
+    }
+
+    private static Artifact createArtifact(Dependency dependency, Map<String, ArtifactHandler> handlers) {
+        String type = isBlank(dependency.getType()) ? "jar" : dependency.getType();
+        ArtifactHandler handler = handlers.get(type);
+        if (handler == null) {
+            handler = new DefaultArtifactHandler(type);
+            handlers.put(type, handler);
+        }
+        String scope = isBlank(dependency.getScope()) ? Artifact.SCOPE_COMPILE : dependency.getScope();
+        String classifier = isBlank(dependency.getClassifier()) ? null : dependency.getClassifier();
+        return new DefaultArtifact(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), scope,
+                type, classifier, handler);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * State kept between the executions of the BOM goals in one class loader.
+ *
+ * A persistent Maven daemon such as mvnd keeps the class realm of a plugin
+ * between builds, so this cache lives as long as the daemon, while a plain
+ * Maven build drops it on exit.  It holds the compiled exclusion rules by
+ * configuration hash, the planned version properties by the versions they
+ * depend on, and the files of the last generation of each BOM by output
+ * file, so that a BOM removed by a clean whose fingerprint did not change is
+ * written from memory instead of being filtered, planned and serialized
+ * again.  All are bounded and evict the least recently used entries, the
+ * plans by their number of artifacts and the outputs by their size.
+ */
+class GenerationCache {
+
+    private static final int MAX_RULES = 64;
+
+    private static final int MAX_OUTPUTS = 64;
+
+    private static final long MAX_PLANNED_ARTIFACTS = 1 << 20;
+
+    private static final GenerationCache INSTANCE =
+            new GenerationCache(MAX_RULES, MAX_OUTPUTS, Math.min(64L << 20, Runtime.getRuntime().maxMemory() / 16));
+
+    private final LruCache<String, DependencyExclusionMatcher> dependencyExclusionMatchers;
+
+    private final LruCache<String, BomExclusionIndex> exclusionIndexes;
+
+    private final LruCache<String, VersionPropertyPlan> plans;
+
+    private final LruCache<String, Outputs> outputs;
+
+    GenerationCache(int maxRules, int maxOutputs, long maxOutputBytes) {
+        dependencyExclusionMatchers = new LruCache<>(maxRules, Long.MAX_VALUE);
+        exclusionIndexes = new LruCache<>(maxRules, Long.MAX_VALUE);
+        plans = new LruCache<>(maxOutputs, MAX_PLANNED_ARTIFACTS);
+        outputs = new LruCache<>(maxOutputs, maxOutputBytes);
+    }
+
+    /**
+     * The cache of the class loader of the plugin.
+     */
+    static GenerationCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the compiled matcher of the exclusions, compiling it unless an
+     * equal configuration was compiled before.  Matchers are not modified
+     * once compiled, so they can be shared.
+     */
+    DependencyExclusionMatcher getDependencyExclusionMatcher(List<DependencyExclusion> exclusions) {
+        String key = new BomFingerprint().addDependencyExclusions(exclusions).toHex();
+        DependencyExclusionMatcher matcher = dependencyExclusionMatchers.get(key);
+        if (matcher == null) {
+            matcher = DependencyExclusionMatcher.compile(exclusions);
+            dependencyExclusionMatchers.put(key, matcher, 1);
+        }
+        return matcher;
+    }
+
+    /**
+     * Returns the compiled index of the exclusions like
+     * {@link #getDependencyExclusionMatcher(List)}.  The ignored rules are
+     * only reported when the index is compiled.
+     */
+    BomExclusionIndex getBomExclusionIndex(List<BomExclusion> exclusions, Log log) {
+        String key = new BomFingerprint().addExclusions(exclusions).toHex();
+        BomExclusionIndex index = exclusionIndexes.get(key);
+        if (index == null) {
+            index = BomExclusionIndex.compile(exclusions, log);
+            exclusionIndexes.put(key, index, 1);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the plan of the artifacts added to the planner, planning them
+     * unless the same versions were planned before.
+     */
+    VersionPropertyPlan getVersionPropertyPlan(VersionPropertyPlanner planner) {
+        String key = planner.toKey();
+        VersionPropertyPlan plan = plans.get(key);
+        if (plan == null) {
+            plan = planner.plan();
+            plans.put(key, plan, plan.getReferenceCount());
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the files of the last generation of the BOM if it had the given
+     * fingerprint, or else <code>null</code>.
+     */
+    Map<File, byte[]> getOutputs(File outputFile, String fingerprint) {
+        Outputs cached = outputs.get(outputFile.getAbsolutePath());
+        return cached == null || !cached.fingerprint.equals(fingerprint) ? null : cached.files;
+    }
+
+    /**
+     * Keeps the files of a generation of the BOM, replacing those of the
+     * previous one.
+     */
+    void putOutputs(File outputFile, String fingerprint, Map<File, byte[]> files) {
+        long size = 0;
+        for (byte[] content : files.values()) {
+            size += content.length;
+        }
+        outputs.put(outputFile.getAbsolutePath(), new Outputs(fingerprint, Collections.unmodifiableMap(files)), size);
+    }
+
+    void clear() {
+        dependencyExclusionMatchers.clear();
+        exclusionIndexes.clear();
+        plans.clear();
+        outputs.clear();
+    }
+
+    private static final class Outputs {
+
+        private final String fingerprint;
+
+        private final Map<File, byte[]> files;
+
+        private Outputs(String fingerprint, Map<File, byte[]> files) {
+            this.fingerprint = fingerprint;
+            this.files = files;
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+
+/**
+ * Writes the BOM as the Kotlin DSL build script of a Gradle
+ * <code>java-platform</code> project, with a constraint per
+ * groupId:artifactId.  Gradle constraints have no type or classifier, so the
+ * first dependency of each groupId:artifactId, in the artifactOrder, gives
+ * its version.
+ */
+class GradlePlatformWriter implements BomFormatWriter {
+
+    @Override
+    public String getName() {
+        return "gradle-platform";
+    }
+
+    @Override
+    public String getFileSuffix() {
+        return "-platform.gradle.kts";
+    }
+
+    @Override
+    public void write(Model header, Iterator<Dependency> dependencies, Writer writer) throws IOException {
+        writer.write("// Generated from " + header.getGroupId() + ":" + header.getArtifactId() + ":"
+                + header.getVersion() + "\n");
+        writer.write("plugins {\n    `java-platform`\n}\n\n");
+        writer.write("group = " + quote(header.getGroupId()) + "\n");
+        writer.write("version = " + quote(header.getVersion()) + "\n\n");
+        writer.write("dependencies {\n    constraints {\n");
+        // the dependencies of a groupId:artifactId are only adjacent in the ga artifactOrder
+        Set<GroupArtifactKey> written = new HashSet<>();
+        while (dependencies.hasNext()) {
+            Dependency dependency = dependencies.next();
+            if (!written.add(new GroupArtifactKey(dependency.getGroupId(), dependency.getArtifactId()))) {
+                continue;
+            }
+            writer.write("        api(" + quote(dependency.getGroupId() + ":" + dependency.getArtifactId() + ":"
+                    + BomFormats.resolveVersion(dependency, header.getProperties())) + ")\n");
+        }
+        writer.write("    }\n}\n");
+    }
+
+    /**
+     * Quotes a Kotlin string, in which <code>$</code> starts a template.
+     */
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c == '$') {
+                quoted.append('\\');
+            }
+            quoted.append(c);
+        }
+        return quoted.append('"').toString();
+    }
+
+}
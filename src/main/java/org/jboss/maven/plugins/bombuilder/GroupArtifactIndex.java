@@ -0,0 +1,116 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An index of values keyed by a groupId pattern and an artifactId pattern.
+ *
+ * The index is built once from the plugin configuration and then queried for
+ * every artifact, so a lookup costs a few hash lookups whatever the number of
+ * configured rules.  See {@link IdPatternMap} for the supported patterns.
+ * When only exact ids were put, a lookup does not allocate anything.
+ */
+class GroupArtifactIndex<T> {
+
+    private final IdPatternMap<IdPatternMap<List<T>>> groups = new IdPatternMap<>();
+
+    private int size;
+
+    /**
+     * Adds a value for the given patterns.  Patterns are normalized with
+     * {@link IdPatternMap#normalize(String)}.
+     */
+    void put(String groupIdPattern, String artifactIdPattern, T value) {
+        String groupId = IdPatternMap.normalize(groupIdPattern);
+        String artifactId = IdPatternMap.normalize(artifactIdPattern);
+        IdPatternMap<List<T>> artifacts = groups.get(groupId);
+        if (artifacts == null) {
+            artifacts = new IdPatternMap<>();
+            groups.put(groupId, artifacts);
+        }
+        List<T> values = artifacts.get(artifactId);
+        if (values == null) {
+            values = new ArrayList<>(1);
+            artifacts.put(artifactId, values);
+        }
+        values.add(value);
+        size++;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the first value whose patterns match the given ids, or
+     * <code>null</code> if there is none.
+     */
+    T findFirst(String groupId, String artifactId) {
+        if (size == 0) {
+            return null;
+        }
+        if (!groups.hasPatterns()) {
+            IdPatternMap<List<T>> artifacts = groups.getExact(groupId);
+            if (artifacts == null) {
+                return null;
+            }
+            if (!artifacts.hasPatterns()) {
+                List<T> match = artifacts.getExact(artifactId);
+                return match == null ? null : match.get(0);
+            }
+        }
+        List<IdPatternMap<List<T>>> matchingGroups = new ArrayList<>(2);
+        groups.collect(groupId, matchingGroups);
+        if (matchingGroups.isEmpty()) {
+            return null;
+        }
+        List<List<T>> matches = new ArrayList<>(2);
+        for (IdPatternMap<List<T>> artifacts : matchingGroups) {
+            artifacts.collect(artifactId, matches);
+            if (!matches.isEmpty()) {
+                return matches.get(0).get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds all values whose patterns match the given ids to the list.
+     */
+    void collect(String groupId, String artifactId, List<? super T> values) {
+        if (size == 0) {
+            return;
+        }
+        if (!groups.hasPatterns()) {
+            IdPatternMap<List<T>> artifacts = groups.getExact(groupId);
+            if (artifacts == null) {
+                return;
+            }
+            if (!artifacts.hasPatterns()) {
+                List<T> match = artifacts.getExact(artifactId);
+                if (match != null) {
+                    values.addAll(match);
+                }
+                return;
+            }
+        }
+        List<IdPatternMap<List<T>>> matchingGroups = new ArrayList<>(2);
+        groups.collect(groupId, matchingGroups);
+        if (matchingGroups.isEmpty()) {
+            return;
+        }
+        List<List<T>> matches = new ArrayList<>(2);
+        for (IdPatternMap<List<T>> artifacts : matchingGroups) {
+            artifacts.collect(artifactId, matches);
+        }
+        for (List<T> match : matches) {
+            values.addAll(match);
+        }
+    }
+
+}
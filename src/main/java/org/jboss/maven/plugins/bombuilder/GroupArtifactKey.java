@@ -0,0 +1,64 @@
+package org.jboss.maven.plugins.bombuilder;
+
+/**
+ * A groupId and artifactId pair used as a map key, so that the two ids do not
+ * have to be concatenated into a new string for every lookup.
+ */
+final class GroupArtifactKey implements Comparable<GroupArtifactKey> {
+
+    private final String groupId;
+
+    private final String artifactId;
+
+    private final int hash;
+
+    GroupArtifactKey(String groupId, String artifactId) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.hash = 31 * groupId.hashCode() + artifactId.hashCode();
+    }
+
+    String getGroupId() {
+        return groupId;
+    }
+
+    String getArtifactId() {
+        return artifactId;
+    }
+
+    boolean hasSameGroupId(GroupArtifactKey other) {
+        return groupId.equals(other.groupId);
+    }
+
+    @Override
+    public int compareTo(GroupArtifactKey other) {
+        int result = groupId.compareTo(other.groupId);
+        if (result == 0) {
+            result = artifactId.compareTo(other.artifactId);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GroupArtifactKey)) {
+            return false;
+        }
+        GroupArtifactKey other = (GroupArtifactKey) o;
+        return hash == other.hash && groupId.equals(other.groupId) && artifactId.equals(other.artifactId);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return groupId + ":" + artifactId;
+    }
+
+}
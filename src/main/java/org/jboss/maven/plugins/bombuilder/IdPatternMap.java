@@ -0,0 +1,174 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.codehaus.plexus.util.StringUtils.defaultString;
+import static org.codehaus.plexus.util.StringUtils.trim;
+
+/**
+ * Maps id patterns (a groupId or an artifactId) to values.
+ *
+ * A pattern is either an exact id, the single wildcard "*", a prefix such as
+ * "org.foo.*" or a general glob using '*' and '?'.  Exact ids and the wildcard
+ * are resolved with one hash lookup, prefixes with one hash lookup per distinct
+ * prefix length.  Only general globs are matched one by one.
+ *
+ * Instances are not modified once they have been populated, so lookups are safe
+ * from several threads.
+ */
+class IdPatternMap<V> {
+
+    static final String WILDCARD = "*";
+
+    private final Map<String, V> exact = new HashMap<>();
+
+    private final Map<String, V> prefixes = new HashMap<>();
+
+    private int[] prefixLengths = new int[0];
+
+    private final List<Pattern> globs = new ArrayList<>();
+
+    private final List<V> globValues = new ArrayList<>();
+
+    private final Map<String, V> globsBySource = new HashMap<>();
+
+    private V any;
+
+    /**
+     * Trims the given id and replaces <code>null</code> with the empty string.
+     */
+    static String normalize(String id) {
+        return defaultString(trim(id), "");
+    }
+
+    V get(String pattern) {
+        if (WILDCARD.equals(pattern)) {
+            return any;
+        }
+        if (isPrefix(pattern)) {
+            return prefixes.get(pattern.substring(0, pattern.length() - 1));
+        }
+        if (isGlob(pattern)) {
+            return globsBySource.get(pattern);
+        }
+        return exact.get(pattern);
+    }
+
+    void put(String pattern, V value) {
+        if (WILDCARD.equals(pattern)) {
+            any = value;
+        } else if (isPrefix(pattern)) {
+            String prefix = pattern.substring(0, pattern.length() - 1);
+            if (prefixes.put(prefix, value) == null) {
+                addPrefixLength(prefix.length());
+            }
+        } else if (isGlob(pattern)) {
+            V previous = globsBySource.put(pattern, value);
+            if (previous == null) {
+                globs.add(toRegex(pattern));
+                globValues.add(value);
+            } else {
+                globValues.set(globValues.indexOf(previous), value);
+            }
+        } else {
+            exact.put(pattern, value);
+        }
+    }
+
+    boolean isEmpty() {
+        return any == null && exact.isEmpty() && prefixes.isEmpty() && globs.isEmpty();
+    }
+
+    /**
+     * Whether the map holds the wildcard, a prefix or a glob, i.e. whether an
+     * id may match more than one pattern.  Otherwise {@link #getExact(String)}
+     * is the only possible match.
+     */
+    boolean hasPatterns() {
+        return any != null || !prefixes.isEmpty() || !globs.isEmpty();
+    }
+
+    /**
+     * Returns the value of the given exact id, or <code>null</code>.
+     */
+    V getExact(String id) {
+        return exact.get(id);
+    }
+
+    /**
+     * Adds the values of all patterns matching the given id to the list: the
+     * exact match first, then prefixes from the shortest to the longest, then
+     * globs in the order they were added and finally the wildcard.
+     */
+    void collect(String id, List<V> matches) {
+        if (!exact.isEmpty()) {
+            V value = exact.get(id);
+            if (value != null) {
+                matches.add(value);
+            }
+        }
+        for (int length : prefixLengths) {
+            if (length > id.length()) {
+                break;
+            }
+            V value = prefixes.get(id.substring(0, length));
+            if (value != null) {
+                matches.add(value);
+            }
+        }
+        for (int i = 0; i < globs.size(); i++) {
+            if (globs.get(i).matcher(id).matches()) {
+                matches.add(globValues.get(i));
+            }
+        }
+        if (any != null) {
+            matches.add(any);
+        }
+    }
+
+    private void addPrefixLength(int length) {
+        if (Arrays.binarySearch(prefixLengths, length) >= 0) {
+            return;
+        }
+        int[] lengths = Arrays.copyOf(prefixLengths, prefixLengths.length + 1);
+        lengths[lengths.length - 1] = length;
+        Arrays.sort(lengths);
+        prefixLengths = lengths;
+    }
+
+    private static boolean isPrefix(String pattern) {
+        int firstWildcard = pattern.indexOf('*');
+        return firstWildcard >= 0 && firstWildcard == pattern.length() - 1 && pattern.indexOf('?') < 0;
+    }
+
+    private static boolean isGlob(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0;
+    }
+
+    private static Pattern toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+}
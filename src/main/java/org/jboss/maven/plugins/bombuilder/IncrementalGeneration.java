@@ -0,0 +1,129 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Tells whether a BOM must be generated again, from the fingerprint of its
+ * previous generation, see {@link BomFingerprint}.
+ *
+ * The fingerprint is written once all the files of a generation are.  With a
+ * {@link GenerationCache}, the files written by the generation are recorded
+ * and kept in the cache, so that they are restored instead of generated again
+ * when a clean removed them.
+ */
+class IncrementalGeneration {
+
+    private final BomOutputs outputs;
+
+    private final GenerationCache cache;
+
+    private final Log log;
+
+    private OutputFiles.Recorder recorder;
+
+    /**
+     * @param cache the cache of the outputs of previous builds, or
+     *        <code>null</code>
+     */
+    IncrementalGeneration(BomOutputs outputs, GenerationCache cache, Log log) {
+        this.outputs = outputs;
+        this.cache = cache;
+        this.log = log;
+    }
+
+    /**
+     * Whether all the given files of the previous generation with the same
+     * fingerprint are in place, or were restored from the cache.
+     */
+    boolean isUpToDate(String fingerprint, List<File> outputFiles) throws MojoExecutionException {
+        File bomFile = outputs.getBomFile();
+        if (fingerprint.equals(readFingerprint())) {
+            File missingFile = null;
+            for (File file : outputFiles) {
+                if (!file.isFile()) {
+                    missingFile = file;
+                    break;
+                }
+            }
+            if (missingFile == null) {
+                log.info("BOM " + bomFile + " is up to date");
+                return true;
+            }
+            log.debug("BOM " + bomFile + " is generated again as " + missingFile + " is missing");
+        }
+        return restoreCachedOutputs(fingerprint);
+    }
+
+    /**
+     * Starts recording the files written by the generation when they are
+     * cached.
+     *
+     * @return the recorder the files are written with, or <code>null</code>
+     */
+    OutputFiles.Recorder startRecording() {
+        recorder = cache != null ? new OutputFiles.Recorder() : null;
+        return recorder;
+    }
+
+    /**
+     * Keeps the recorded files in the cache and writes the fingerprint, once
+     * all the files of the generation are written.
+     */
+    void complete(String fingerprint) throws MojoExecutionException {
+        if (recorder != null) {
+            cache.putOutputs(outputs.getBomFile(), fingerprint, recorder.getFiles());
+            recorder = null;
+        }
+        writeFingerprint(fingerprint);
+    }
+
+    /**
+     * Writes the files of the last generation of the BOM from the cache if it
+     * had the same fingerprint, e.g. when they were removed by a clean.
+     *
+     * @return <code>true</code> if the files were restored
+     */
+    private boolean restoreCachedOutputs(String fingerprint) throws MojoExecutionException {
+        File bomFile = outputs.getBomFile();
+        Map<File, byte[]> files = cache == null ? null : cache.getOutputs(bomFile, fingerprint);
+        if (files == null) {
+            return false;
+        }
+        for (Map.Entry<File, byte[]> file : files.entrySet()) {
+            try {
+                OutputFiles.writeIfChanged(file.getKey(), file.getValue());
+            } catch (IOException e) {
+                throw new MojoExecutionException("Unable to write " + file.getKey(), e);
+            }
+        }
+        writeFingerprint(fingerprint);
+        log.info("BOM " + bomFile + " is restored from the previous build");
+        return true;
+    }
+
+    private String readFingerprint() {
+        File fingerprintFile = outputs.getFingerprintFile();
+        try {
+            return BomFingerprint.read(fingerprintFile);
+        } catch (IOException e) {
+            log.debug("Unable to read " + fingerprintFile, e);
+            return null;
+        }
+    }
+
+    private void writeFingerprint(String fingerprint) throws MojoExecutionException {
+        File fingerprintFile = outputs.getFingerprintFile();
+        try {
+            BomFingerprint.write(fingerprintFile, fingerprint);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write " + fingerprintFile, e);
+        }
+    }
+
+}
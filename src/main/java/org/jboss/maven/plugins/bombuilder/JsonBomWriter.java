@@ -0,0 +1,74 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Properties;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Model;
+
+/**
+ * Writes the BOM as JSON: its coordinates, its properties and its
+ * dependencies, each with its resolved version, the property the version
+ * refers to if any, and its exclusions as groupId:artifactId.
+ */
+class JsonBomWriter implements BomFormatWriter {
+
+    @Override
+    public String getName() {
+        return "json";
+    }
+
+    @Override
+    public String getFileSuffix() {
+        return ".json";
+    }
+
+    @Override
+    public void write(Model header, Iterator<Dependency> dependencies, Writer writer) throws IOException {
+        Properties properties = header.getProperties();
+        writer.write("{\n");
+        writer.write("  \"groupId\": " + BomMetrics.quote(header.getGroupId()) + ",\n");
+        writer.write("  \"artifactId\": " + BomMetrics.quote(header.getArtifactId()) + ",\n");
+        writer.write("  \"version\": " + BomMetrics.quote(header.getVersion()) + ",\n");
+        writer.write("  \"properties\": {");
+        if (properties != null && !properties.isEmpty()) {
+            String separator = "\n";
+            for (Object key : properties.keySet()) {
+                writer.write(separator + "    " + BomMetrics.quote((String) key) + ": "
+                        + BomMetrics.quote(properties.getProperty((String) key)));
+                separator = ",\n";
+            }
+            writer.write("\n  ");
+        }
+        writer.write("},\n");
+        writer.write("  \"dependencies\": [");
+        String separator = "\n";
+        boolean empty = true;
+        while (dependencies.hasNext()) {
+            Dependency dependency = dependencies.next();
+            writer.write(separator);
+            separator = ",\n";
+            empty = false;
+            writer.write("    { \"groupId\": " + BomMetrics.quote(dependency.getGroupId())
+                    + ", \"artifactId\": " + BomMetrics.quote(dependency.getArtifactId())
+                    + ", \"version\": " + BomMetrics.quote(BomFormats.resolveVersion(dependency, properties))
+                    + ", \"versionProperty\": " + BomMetrics.quote(BomFormats.getVersionProperty(dependency))
+                    + ", \"type\": " + BomMetrics.quote(dependency.getType())
+                    + ", \"classifier\": " + BomMetrics.quote(dependency.getClassifier())
+                    + ", \"exclusions\": [");
+            String exclusionSeparator = "";
+            for (Exclusion exclusion : dependency.getExclusions()) {
+                writer.write(exclusionSeparator
+                        + BomMetrics.quote(exclusion.getGroupId() + ":" + exclusion.getArtifactId()));
+                exclusionSeparator = ", ";
+            }
+            writer.write("] }");
+        }
+        writer.write(empty ? "]\n" : "\n  ]\n");
+        writer.write("}\n");
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A map bounded by its number of entries and by the total weight of its
+ * values, such as their size in bytes, which evicts the least recently used
+ * entries first.  It may be used from several threads.
+ */
+class LruCache<K, V> {
+
+    private final int maxEntries;
+
+    private final long maxWeight;
+
+    private final LinkedHashMap<K, Weighted<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+
+    LruCache(int maxEntries, long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the value of the key, or <code>null</code>, and makes the entry
+     * the most recently used.
+     */
+    synchronized V get(K key) {
+        Weighted<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Puts the value, then evicts the least recently used entries until the
+     * cache is within its bounds.  A value heavier than the whole cache is
+     * not kept.
+     */
+    synchronized void put(K key, V value, long valueWeight) {
+        Weighted<V> previous = entries.remove(key);
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        if (valueWeight > maxWeight) {
+            return;
+        }
+        entries.put(key, new Weighted<>(value, valueWeight));
+        weight += valueWeight;
+        Iterator<Map.Entry<K, Weighted<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            weight -= eldest.next().getValue().weight;
+            eldest.remove();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return weight;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    private static final class Weighted<V> {
+
+        private final V value;
+
+        private final long weight;
+
+        private Weighted(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+}
@@ -1,47 +1,254 @@
 package org.jboss.maven.plugins.bombuilder;
 
-import java.util.AbstractSet;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
-/** class is not thread safe */
+/**
+ * Properties which iterate in the order the keys were added.  Putting an
+ * existing key again moves it to the end.
+ *
+ * The entries are kept in a {@link LinkedHashMap} rather than in the hash
+ * table inherited from {@link Properties}, so every operation, including a
+ * re-put, takes constant time.  The key, entry and value views are created
+ * once and share the ordering.
+ *
+ * Since Java 9 {@link Properties} keeps its entries in an internal map and
+ * implements the Map methods added in Java 8 on that map, so they would not
+ * see the entries held here.  They are overridden as well and work on the
+ * ordered entries; only {@link #put} and {@link #putAll} move an existing key
+ * to the end, the other methods update a value in place.  The entries are
+ * serialized as a field of this class.
+ *
+ * Like {@link java.util.Hashtable} the methods synchronize on the instance,
+ * but iterating over a view is not synchronized.
+ */
 class OrderedProperties extends Properties {
-    private final List<Object> keyOrder = new ArrayList<>();
 
+    private LinkedHashMap<Object, Object> entries = new LinkedHashMap<>();
+
+    private transient Set<Object> keySet;
+
+    private transient Set<Map.Entry<Object, Object>> entrySet;
+
+    private transient Collection<Object> values;
+
+    @Override
+    public synchronized Object put(Object key, Object value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        Object previous = entries.remove(key);
+        entries.put(key, value);
+        return previous;
+    }
 
     @Override
     public synchronized void putAll(Map<?, ?> t) {
-        super.putAll(t);
+        for (Map.Entry<?, ?> entry : t.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
     }
 
     @Override
-    public Set<Object> keySet() {
-        return Collections.synchronizedSet(new KeySet());
+    public synchronized Object get(Object key) {
+        return entries.get(key);
     }
 
     @Override
-    public synchronized Object put(Object key, Object value) {
-        if (keyOrder.contains(key)) {
-            keyOrder.remove(key);
+    public String getProperty(String key) {
+        Object value = get(key);
+        String property = value instanceof String ? (String) value : null;
+        return property == null && defaults != null ? defaults.getProperty(key) : property;
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        return entries.remove(key);
+    }
+
+    @Override
+    public synchronized Object getOrDefault(Object key, Object defaultValue) {
+        Object value = entries.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    @Override
+    public synchronized Object putIfAbsent(Object key, Object value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
         }
-        keyOrder.add(key);
-        return super.put(key, value);
+        return entries.putIfAbsent(key, value);
     }
 
-    private class KeySet extends AbstractSet<Object> {
-        public Iterator<Object> iterator() {
-            return keyOrder.iterator();
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+        return entries.remove(key, value);
+    }
+
+    @Override
+    public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+        if (newValue == null) {
+            throw new NullPointerException();
         }
-        public int size() { return keyOrder.size(); }
-        public boolean contains(Object o) {
-            return containsKey(o);
+        return entries.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public synchronized Object replace(Object key, Object value) {
+        if (value == null) {
+            throw new NullPointerException();
         }
-        public boolean remove(Object o) { throw new UnsupportedOperationException(); }
-        public void clear () { throw new UnsupportedOperationException(); }
+        return entries.replace(key, value);
     }
+
+    @Override
+    public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+        entries.replaceAll(function);
+    }
+
+    @Override
+    public synchronized void forEach(BiConsumer<? super Object, ? super Object> action) {
+        entries.forEach(action);
+    }
+
+    @Override
+    public synchronized Object computeIfAbsent(Object key, Function<? super Object, ?> mappingFunction) {
+        return entries.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public synchronized Object computeIfPresent(Object key,
+            BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        return entries.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized Object compute(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        return entries.compute(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized Object merge(Object key, Object value,
+            BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        return entries.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public synchronized boolean containsValue(Object value) {
+        return entries.containsValue(value);
+    }
+
+    @Override
+    public synchronized boolean contains(Object value) {
+        return entries.containsValue(value);
+    }
+
+    @Override
+    public synchronized Set<Object> keySet() {
+        if (keySet == null) {
+            keySet = entries.keySet();
+        }
+        return keySet;
+    }
+
+    @Override
+    public synchronized Set<Map.Entry<Object, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = entries.entrySet();
+        }
+        return entrySet;
+    }
+
+    @Override
+    public synchronized Collection<Object> values() {
+        if (values == null) {
+            values = entries.values();
+        }
+        return values;
+    }
+
+    @Override
+    public synchronized Enumeration<Object> keys() {
+        return Collections.enumeration(entries.keySet());
+    }
+
+    @Override
+    public synchronized Enumeration<Object> elements() {
+        return Collections.enumeration(entries.values());
+    }
+
+    @Override
+    public Enumeration<?> propertyNames() {
+        return Collections.enumeration(stringPropertyNames());
+    }
+
+    @Override
+    public synchronized Set<String> stringPropertyNames() {
+        Set<String> names = new LinkedHashSet<>();
+        if (defaults != null) {
+            names.addAll(defaults.stringPropertyNames());
+        }
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            if (entry.getKey() instanceof String && entry.getValue() instanceof String) {
+                names.add((String) entry.getKey());
+            }
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized Object clone() {
+        OrderedProperties clone = (OrderedProperties) super.clone();
+        clone.entries = (LinkedHashMap<Object, Object>) entries.clone();
+        clone.keySet = null;
+        clone.entrySet = null;
+        clone.values = null;
+        return clone;
+    }
+
+    @Override
+    public synchronized boolean equals(Object o) {
+        return o == this || entries.equals(o);
+    }
+
+    @Override
+    public synchronized int hashCode() {
+        return entries.hashCode();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return entries.toString();
+    }
+
 }
@@ -0,0 +1,259 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes generated files so that an existing file whose content would not
+ * change is left untouched, keeping its modification time.
+ *
+ * A file is written into a temporary file next to it and then moved into
+ * place atomically when the file system supports it, so that a reader or an
+ * interrupted build never sees a partly written file.
+ */
+class OutputFiles {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The checksum algorithms of {@link #writeWithChecksums(File, Content)},
+     * and the extension of their sidecar files.
+     */
+    private static final String[][] CHECKSUMS = {{"SHA-1", ".sha1"}, {"SHA-256", ".sha256"}};
+
+    /**
+     * Writes the content of a generated file.
+     */
+    interface Content {
+
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    /**
+     * Keeps the bytes of the files written with it, so that they can be
+     * cached without reading the files back.  It may be used from several
+     * threads.
+     */
+    static final class Recorder {
+
+        private final Map<File, byte[]> files = new LinkedHashMap<>();
+
+        synchronized void record(File file, byte[] content) {
+            files.put(file.getAbsoluteFile(), content);
+        }
+
+        /**
+         * The content of the recorded files, by absolute file.
+         */
+        synchronized Map<File, byte[]> getFiles() {
+            return new LinkedHashMap<>(files);
+        }
+    }
+
+    private OutputFiles() {
+    }
+
+    /**
+     * Writes the content as UTF-8 into a temporary file next to the output
+     * file, then replaces the output file with it unless both have the same
+     * bytes.
+     *
+     * @return <code>true</code> if the output file was written,
+     *         <code>false</code> if it already had the same content
+     */
+    static boolean writeIfChanged(File outputFile, Content content) throws IOException {
+        return writeIfChanged(outputFile, content, null);
+    }
+
+    /**
+     * Writes the content like {@link #writeIfChanged(File, Content)}, giving
+     * its bytes to the recorder unless it is <code>null</code>.
+     */
+    static boolean writeIfChanged(File outputFile, Content content, Recorder recorder) throws IOException {
+        return write(outputFile, content, null, recorder);
+    }
+
+    /**
+     * Writes the content like {@link #writeIfChanged(File, Content)} and
+     * writes its SHA-1 and SHA-256 checksums into <code>.sha1</code> and
+     * <code>.sha256</code> files next to the output file, as found in a Maven
+     * repository.  The checksums are computed while the content is written,
+     * so the file is not read again.
+     *
+     * @return <code>true</code> if the output file was written,
+     *         <code>false</code> if it already had the same content
+     */
+    static boolean writeWithChecksums(File outputFile, Content content) throws IOException {
+        return writeWithChecksums(outputFile, content, null);
+    }
+
+    /**
+     * Writes the content and its checksums like
+     * {@link #writeWithChecksums(File, Content)}, giving the bytes of the
+     * three files to the recorder unless it is <code>null</code>.
+     */
+    static boolean writeWithChecksums(File outputFile, Content content, Recorder recorder) throws IOException {
+        MessageDigest[] digests = new MessageDigest[CHECKSUMS.length];
+        for (int i = 0; i < CHECKSUMS.length; i++) {
+            try {
+                digests[i] = MessageDigest.getInstance(CHECKSUMS[i][0]);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(CHECKSUMS[i][0] + " is not available", e);
+            }
+        }
+        boolean written = write(outputFile, content, digests, recorder);
+        for (int i = 0; i < CHECKSUMS.length; i++) {
+            final String checksum = BomFingerprint.toHex(digests[i].digest());
+            writeIfChanged(new File(outputFile.getPath() + CHECKSUMS[i][1]), new Content() {
+                @Override
+                public void writeTo(Writer writer) throws IOException {
+                    writer.write(checksum);
+                }
+            }, recorder);
+        }
+        return written;
+    }
+
+    /**
+     * Writes the bytes like {@link #writeIfChanged(File, Content)}.
+     *
+     * @return <code>true</code> if the output file was written,
+     *         <code>false</code> if it already had the same content
+     */
+    static boolean writeIfChanged(File outputFile, byte[] content) throws IOException {
+        return writeIfChanged(outputFile, content, null);
+    }
+
+    /**
+     * Writes the bytes like {@link #writeIfChanged(File, byte[])}, giving them
+     * to the recorder unless it is <code>null</code>.
+     */
+    static boolean writeIfChanged(File outputFile, byte[] content, Recorder recorder) throws IOException {
+        if (recorder != null) {
+            recorder.record(outputFile, content);
+        }
+        File tempFile = createTempFile(outputFile);
+        try {
+            try (OutputStream out = new FileOutputStream(tempFile)) {
+                out.write(content);
+            }
+            return replaceIfChanged(outputFile, tempFile);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static boolean write(File outputFile, Content content, MessageDigest[] digests, Recorder recorder)
+            throws IOException {
+        if (recorder != null) {
+            // the recorder keeps the bytes anyway, so they are written from memory
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                content.writeTo(writer);
+            }
+            byte[] bytes = buffer.toByteArray();
+            if (digests != null) {
+                for (MessageDigest digest : digests) {
+                    digest.update(bytes);
+                }
+            }
+            return writeIfChanged(outputFile, bytes, recorder);
+        }
+        File tempFile = createTempFile(outputFile);
+        try {
+            OutputStream out = new FileOutputStream(tempFile);
+            if (digests != null) {
+                for (MessageDigest digest : digests) {
+                    out = new DigestOutputStream(out, digest);
+                }
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                content.writeTo(writer);
+            }
+            return replaceIfChanged(outputFile, tempFile);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static File createTempFile(File outputFile) throws IOException {
+        File directory = outputFile.getAbsoluteFile().getParentFile();
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        return File.createTempFile(outputFile.getName(), ".tmp", directory);
+    }
+
+    private static boolean replaceIfChanged(File outputFile, File tempFile) throws IOException {
+        if (outputFile.exists() && haveSameContent(outputFile, tempFile)) {
+            return false;
+        }
+        move(tempFile, outputFile);
+        return true;
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static boolean haveSameContent(File file1, File file2) throws IOException {
+        if (file1.length() != file2.length()) {
+            return false;
+        }
+        try (InputStream in1 = new BufferedInputStream(new FileInputStream(file1), BUFFER_SIZE);
+             InputStream in2 = new BufferedInputStream(new FileInputStream(file2), BUFFER_SIZE)) {
+            byte[] buffer1 = new byte[BUFFER_SIZE];
+            byte[] buffer2 = new byte[BUFFER_SIZE];
+            while (true) {
+                int read1 = readFully(in1, buffer1);
+                int read2 = readFully(in2, buffer2);
+                if (read1 != read2) {
+                    return false;
+                }
+                if (read1 <= 0) {
+                    return true;
+                }
+                for (int i = 0; i < read1; i++) {
+                    if (buffer1[i] != buffer2[i]) {
+                        return false;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = in.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+}
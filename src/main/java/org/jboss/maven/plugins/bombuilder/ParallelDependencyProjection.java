@@ -0,0 +1,152 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+
+/**
+ * Filters the sorted artifacts of a BOM and turns them into dependencies on a
+ * fork/join pool.
+ *
+ * The artifact list is cut into contiguous chunks which are processed
+ * independently, then the chunk results are concatenated in chunk order.  The
+ * dependencies are therefore in the same order as in a serial run, and the
+ * generated BOM is the same.
+ */
+class ParallelDependencyProjection {
+
+    /**
+     * The number of chunks per pool thread, so that a slow chunk does not keep
+     * the other threads idle.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    static final class Result {
+
+        private final List<Artifact> includedArtifacts;
+
+        private final List<Dependency> dependencies;
+
+        private Result(List<Artifact> includedArtifacts, List<Dependency> dependencies) {
+            this.includedArtifacts = includedArtifacts;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * The artifacts which are not excluded, in their original order.
+         */
+        List<Artifact> getIncludedArtifacts() {
+            return includedArtifacts;
+        }
+
+        /**
+         * The dependencies of the included artifacts, or an empty list when
+         * they were not requested.
+         */
+        List<Dependency> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    private ParallelDependencyProjection() {
+    }
+
+    /**
+     * @param minimumChunkSize the smallest number of artifacts processed by a
+     *        task
+     * @param createDependencies whether the included artifacts are also turned
+     *        into dependencies, with the BOM exclusions applied
+     */
+    static Result project(ForkJoinPool pool, int minimumChunkSize, List<Artifact> sortedArtifacts,
+                          BomGenerator generator, boolean createDependencies) {
+        int chunks = pool.getParallelism() * CHUNKS_PER_THREAD;
+        int chunkSize = Math.max(Math.max(minimumChunkSize, 1), (sortedArtifacts.size() + chunks - 1) / chunks);
+        return pool.invoke(new ProjectionTask(sortedArtifacts, chunkSize, generator, createDependencies));
+    }
+
+    /**
+     * Forks one task per chunk and concatenates their results in order.
+     */
+    private static final class ProjectionTask extends RecursiveTask<Result> {
+
+        private final List<Artifact> sortedArtifacts;
+
+        private final int chunkSize;
+
+        private final BomGenerator generator;
+
+        private final boolean createDependencies;
+
+        ProjectionTask(List<Artifact> sortedArtifacts, int chunkSize, BomGenerator generator, boolean createDependencies) {
+            this.sortedArtifacts = sortedArtifacts;
+            this.chunkSize = chunkSize;
+            this.generator = generator;
+            this.createDependencies = createDependencies;
+        }
+
+        @Override
+        protected Result compute() {
+            List<ChunkTask> tasks = new ArrayList<>();
+            for (int from = 0; from < sortedArtifacts.size(); from += chunkSize) {
+                int to = Math.min(from + chunkSize, sortedArtifacts.size());
+                tasks.add(new ChunkTask(sortedArtifacts.subList(from, to), generator, createDependencies));
+            }
+            ForkJoinTask.invokeAll(tasks);
+
+            int included = 0;
+            for (ChunkTask task : tasks) {
+                included += task.join().includedArtifacts.size();
+            }
+            List<Artifact> includedArtifacts = new ArrayList<>(included);
+            List<Dependency> dependencies = createDependencies
+                    ? new ArrayList<Dependency>(included) : Collections.<Dependency>emptyList();
+            for (ChunkTask task : tasks) {
+                Result chunk = task.join();
+                includedArtifacts.addAll(chunk.includedArtifacts);
+                if (createDependencies) {
+                    dependencies.addAll(chunk.dependencies);
+                }
+            }
+            return new Result(includedArtifacts, dependencies);
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveTask<Result> {
+
+        private final List<Artifact> artifacts;
+
+        private final BomGenerator generator;
+
+        private final boolean createDependencies;
+
+        ChunkTask(List<Artifact> artifacts, BomGenerator generator, boolean createDependencies) {
+            this.artifacts = artifacts;
+            this.generator = generator;
+            this.createDependencies = createDependencies;
+        }
+
+        @Override
+        protected Result compute() {
+            List<Artifact> includedArtifacts = new ArrayList<>(artifacts.size());
+            List<Dependency> dependencies = createDependencies
+                    ? new ArrayList<Dependency>(artifacts.size()) : Collections.<Dependency>emptyList();
+            for (Artifact artifact : artifacts) {
+                if (generator.isExcludedDependency(artifact)) {
+                    continue;
+                }
+                includedArtifacts.add(artifact);
+                if (createDependencies) {
+                    dependencies.add(generator.createDependency(artifact));
+                }
+            }
+            return new Result(includedArtifacts, dependencies);
+        }
+    }
+
+}
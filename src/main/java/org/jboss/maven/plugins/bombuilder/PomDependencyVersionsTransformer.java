@@ -1,11 +1,5 @@
 package org.jboss.maven.plugins.bombuilder;
 
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Properties;
-import java.util.Set;
-import java.util.TreeMap;
-
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.DependencyManagement;
 import org.apache.maven.model.Model;
@@ -14,70 +8,48 @@ class PomDependencyVersionsTransformer {
 
 
     public Model transformPomModel(Model model) {
-        Model pomModel = model.clone();
-        DependencyManagement depMgmt = pomModel.getDependencyManagement();
-        Map<String, String> groupIdArtifactIdVersions = new TreeMap<>();
-        Map<String, String> groupIdArtifactIdPropertyNames = new TreeMap<>();
-        Map<String, String> groupIdVersions = new TreeMap<>();
-        Map<String, Set<String>> groupIdArtifactIds = new TreeMap<>();
-        for (Dependency dependency : depMgmt.getDependencies()) {
-            String groupId = dependency.getGroupId();
-            String artifactId = dependency.getArtifactId();
-            String groupIdArtifactId = groupId + ":" + artifactId;
-            groupIdArtifactIdVersions.put(groupIdArtifactId, dependency.getVersion());
-            groupIdVersions.put(groupId, dependency.getVersion());
+        return transformPomModel(model, false);
+    }
 
-            Set<String> artifactIds = groupIdArtifactIds.get(groupId);
-            if (artifactIds == null) {
-                artifactIds = new HashSet<>();
-                groupIdArtifactIds.put(groupId, artifactIds);
-            }
-            artifactIds.add(artifactId);
-        }
+    /**
+     * Returns a copy of the model whose dependency versions are replaced with
+     * version properties, optionally shared across groups (see
+     * {@link VersionPropertyPlanner#setShareAcrossGroups(boolean)}).
+     */
+    public Model transformPomModel(Model model, boolean shareAcrossGroups) {
+        return transformPomModel(model, shareAcrossGroups, new CoordinatePool());
+    }
 
-        Properties properties = pomModel.getProperties();
-        for(Map.Entry<String, String> groupVersion  : groupIdVersions.entrySet()) {
-            String groupId = groupVersion.getKey();
-            Set<String> artifactIds = groupIdArtifactIds.get(groupId);
-            if (artifactIds.size() == 1 || allArtifactsInGroupHaveSameVersion(groupId, groupIdArtifactIdVersions, artifactIds)) {
-                String propertyName = "version." + groupId;
-                properties.setProperty(propertyName, groupVersion.getValue());
-                for (String artifactId : artifactIds) {
-                    String groupIdArtifactId = groupId + ":" + artifactId;
-                    groupIdArtifactIdPropertyNames.put(groupIdArtifactId, propertyName);
-                }
-            } else {
-                for (String artifactId : artifactIds) {
-                    String groupIdArtifactId = groupId + ":" + artifactId;
-                    String propertyName = "version." + groupId + "." + artifactId;
-                    groupIdArtifactIdPropertyNames.put(groupIdArtifactId, propertyName);
-                    properties.setProperty(propertyName, groupIdArtifactIdVersions.get(groupIdArtifactId));
-                }
-            }
-        }
-        for (Dependency dependency : depMgmt.getDependencies()) {
-            String groupId = dependency.getGroupId();
-            String artifactId = dependency.getArtifactId();
-            String groupIdArtifactId = groupId + ":" + artifactId;
-            String propertyName = groupIdArtifactIdPropertyNames.get(groupIdArtifactId);
-            dependency.setVersion("${" + propertyName + "}");
+    /**
+     * Returns a copy of the model like
+     * {@link #transformPomModel(Model, boolean)}, planning the properties with
+     * the keys and versions of the given pool, such as the pool the
+     * dependencies of the model were created with.
+     */
+    public Model transformPomModel(Model model, boolean shareAcrossGroups, CoordinatePool pool) {
+        Model pomModel = model.clone();
+        VersionPropertyPlanner planner = new VersionPropertyPlanner(pool);
+        planner.setShareAcrossGroups(shareAcrossGroups);
+        for (Dependency dependency : pomModel.getDependencyManagement().getDependencies()) {
+            planner.add(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
         }
-        return pomModel;
+        return transformPomModel(pomModel, planner.plan());
     }
 
-    private boolean allArtifactsInGroupHaveSameVersion(String groupId, Map<String, String> groupIdArtifactIdVersions, Set<String> artifactIds) {
-        String version = null;
-        for (String artifactId : artifactIds) {
-            String groupIdArtifactId = groupId + ":" + artifactId;
-            if (version == null) {
-                version = groupIdArtifactIdVersions.get(groupIdArtifactId);
-            } else {
-                if (!version.equals(groupIdArtifactIdVersions.get(groupIdArtifactId))) {
-                    return false;
-                }
-            }
+    /**
+     * Replaces the dependency versions of the model with the version
+     * properties of a plan of its dependencies, and adds the properties.  The
+     * model is changed in place.
+     *
+     * @return the model
+     */
+    public Model transformPomModel(Model model, VersionPropertyPlan plan) {
+        plan.addPropertiesTo(model.getProperties());
+        DependencyManagement depMgmt = model.getDependencyManagement();
+        for (Dependency dependency : depMgmt.getDependencies()) {
+            plan.applyTo(dependency);
         }
-        return true;
+        return model;
     }
 
 }
@@ -0,0 +1,200 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+
+/**
+ * Merges the resolved artifacts of several reactor projects into one list with
+ * a single version per managed dependency.
+ *
+ * The artifacts are keyed by groupId, artifactId, type and classifier, the
+ * coordinates of a dependency management entry.  Each artifact costs one
+ * lookup in a concurrent map, so the projects can be added from several
+ * threads, and only the unique artifacts are sorted at the end.  The result
+ * does not depend on the order the projects are added in: every project has a
+ * reactor index and conflicts are settled on it.
+ */
+class ReactorArtifactMerger {
+
+    /**
+     * How two reactor projects resolving different versions of the same
+     * artifact are reconciled.
+     */
+    enum ConflictPolicy {
+
+        /** The highest version wins, or the first project on equal versions */
+        HIGHEST,
+
+        /** The build fails */
+        FAIL,
+
+        /** The version of the first project in the reactor wins */
+        FIRST;
+
+        static ConflictPolicy parse(String policy) {
+            try {
+                return valueOf(policy.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private final ConflictPolicy policy;
+
+    private final ConcurrentMap<String, Candidate> candidates = new ConcurrentHashMap<>();
+
+    private final Set<String> conflicts = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    ReactorArtifactMerger(ConflictPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Adds the artifacts of the project at the given reactor index.  May be
+     * called concurrently for different projects.
+     */
+    void add(int reactorIndex, String projectId, Collection<Artifact> artifacts) {
+        for (Artifact artifact : artifacts) {
+            add(new Candidate(artifact, reactorIndex, projectId));
+        }
+    }
+
+    /**
+     * Adds the artifacts of every project, the reactor index of a project
+     * being its position in the lists, on up to <code>threads</code> threads.
+     */
+    void addAll(List<String> projectIds, List<? extends Collection<Artifact>> projectArtifacts, int threads)
+            throws InterruptedException {
+        if (threads <= 1 || projectArtifacts.size() <= 1) {
+            for (int i = 0; i < projectArtifacts.size(); i++) {
+                add(i, projectIds.get(i), projectArtifacts.get(i));
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, projectArtifacts.size()));
+        try {
+            List<Future<Void>> results = new ArrayList<>(projectArtifacts.size());
+            for (int i = 0; i < projectArtifacts.size(); i++) {
+                final int reactorIndex = i;
+                final String projectId = projectIds.get(i);
+                final Collection<Artifact> artifacts = projectArtifacts.get(i);
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        add(reactorIndex, projectId, artifacts);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Unable to merge the reactor artifacts", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The artifacts resolved with different versions, only recorded with the
+     * {@link ConflictPolicy#FAIL} policy.
+     */
+    List<String> getConflicts() {
+        List<String> sorted = new ArrayList<>(conflicts);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    int size() {
+        return candidates.size();
+    }
+
+    List<Artifact> getSortedArtifacts() {
+        List<Artifact> artifacts = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates.values()) {
+            artifacts.add(candidate.artifact);
+        }
+        ArtifactOrder.GA.sort(artifacts);
+        return artifacts;
+    }
+
+    private void add(Candidate candidate) {
+        String key = candidate.artifact.getDependencyConflictId();
+        Candidate current = candidates.putIfAbsent(key, candidate);
+        while (current != null) {
+            Candidate winner = resolve(key, current, candidate);
+            if (winner == current || candidates.replace(key, current, winner)) {
+                return;
+            }
+            current = candidates.get(key);
+        }
+    }
+
+    /**
+     * Returns the candidate to keep.  The choice is symmetric, so the outcome
+     * is the same whichever project is added first.
+     */
+    private Candidate resolve(String key, Candidate current, Candidate candidate) {
+        Candidate first = current.reactorIndex <= candidate.reactorIndex ? current : candidate;
+        Candidate last = first == current ? candidate : current;
+        String firstVersion = first.artifact.getVersion();
+        String lastVersion = last.artifact.getVersion();
+        if (firstVersion == null ? lastVersion == null : firstVersion.equals(lastVersion)) {
+            return first;
+        }
+        switch (policy) {
+            case HIGHEST:
+                return last.getComparableVersion().compareTo(first.getComparableVersion()) > 0 ? last : first;
+            case FAIL:
+                conflicts.add(key + " is resolved to " + firstVersion + " in " + first.projectId + " and to "
+                        + lastVersion + " in " + last.projectId);
+                return first;
+            default:
+                return first;
+        }
+    }
+
+    private static final class Candidate {
+
+        private final Artifact artifact;
+
+        private final int reactorIndex;
+
+        private final String projectId;
+
+        private ComparableVersion comparableVersion;
+
+        Candidate(Artifact artifact, int reactorIndex, String projectId) {
+            this.artifact = artifact;
+            this.reactorIndex = reactorIndex;
+            this.projectId = projectId;
+        }
+
+        synchronized ComparableVersion getComparableVersion() {
+            if (comparableVersion == null) {
+                String version = artifact.getVersion();
+                comparableVersion = new ComparableVersion(version == null ? "" : version);
+            }
+            return comparableVersion;
+        }
+    }
+
+}
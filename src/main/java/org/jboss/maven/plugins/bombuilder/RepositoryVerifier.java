@@ -0,0 +1,303 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.maven.artifact.ArtifactUtils;
+
+/**
+ * Checks that the dependencies of a BOM exist in a repository with the Maven
+ * repository layout on the file system, such as the local repository.
+ *
+ * The dependencies are grouped by the directory of their version, which is
+ * listed once for all the dependencies it holds instead of testing each file.
+ * The directories are cut into contiguous chunks checked on a bounded pool,
+ * of virtual threads when the JVM has them, and the missing files are
+ * reported in the order of the dependencies.  A verifier holds no state, so
+ * concurrent BOM generations can share it.
+ */
+class RepositoryVerifier {
+
+    /**
+     * The number of chunks per thread, so that a slow chunk does not keep the
+     * other threads idle.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The extension and default classifier of the types whose file name is
+     * not the type, as defined by the artifact handlers of Maven.
+     */
+    private static final Map<String, String[]> TYPES = new HashMap<>();
+
+    static {
+        TYPES.put("test-jar", new String[] {"jar", "tests"});
+        TYPES.put("ejb-client", new String[] {"jar", "client"});
+        TYPES.put("java-source", new String[] {"jar", "sources"});
+        TYPES.put("javadoc", new String[] {"jar", "javadoc"});
+        TYPES.put("ejb", new String[] {"jar", null});
+        TYPES.put("maven-plugin", new String[] {"jar", null});
+        TYPES.put("bundle", new String[] {"jar", null});
+    }
+
+    private final File repository;
+
+    private final int threads;
+
+    /**
+     * @param threads the maximum number of directories listed at the same
+     *        time
+     */
+    RepositoryVerifier(File repository, int threads) {
+        this.repository = repository;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Returns the directory of a repository given as a <code>file:</code> URL
+     * or as a path.
+     *
+     * @throws IllegalArgumentException if the repository is a URL of another
+     *         scheme
+     */
+    static File toDirectory(String repository) {
+        if (!repository.contains(":/")) {
+            return new File(repository);
+        }
+        try {
+            URI uri = new URI(repository);
+            if (!"file".equals(uri.getScheme())) {
+                throw new IllegalArgumentException("Only file: repositories can be verified, not " + repository);
+            }
+            return new File(uri);
+        } catch (URISyntaxException e) {
+            // a Windows path such as C:/repository
+            return new File(repository);
+        }
+    }
+
+    File getRepository() {
+        return repository;
+    }
+
+    /**
+     * Checks the dependencies of the batch.
+     *
+     * @throws InterruptedException if the thread is interrupted while the
+     *         directories are listed
+     */
+    Report verify(Batch batch) throws InterruptedException {
+        final List<Directory> directories = new ArrayList<>(batch.directories.values());
+        if (directories.isEmpty()) {
+            return new Report(repository, 0, Collections.<String>emptyList());
+        }
+        int chunks = Math.min(directories.size(), threads * CHUNKS_PER_THREAD);
+        int chunkSize = (directories.size() + chunks - 1) / chunks;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks), createThreadFactory());
+        try {
+            List<Future<List<String>>> results = new ArrayList<>(chunks);
+            for (int start = 0; start < directories.size(); start += chunkSize) {
+                final List<Directory> chunk = directories.subList(start, Math.min(start + chunkSize, directories.size()));
+                results.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        List<String> missing = new ArrayList<>();
+                        for (Directory directory : chunk) {
+                            directory.verify(repository, missing);
+                        }
+                        return missing;
+                    }
+                }));
+            }
+            List<String> missing = new ArrayList<>();
+            for (Future<List<String>> result : results) {
+                try {
+                    missing.addAll(result.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Unable to verify the repository " + repository, e.getCause());
+                }
+            }
+            return new Report(repository, batch.entryCount, missing);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns a factory of virtual threads when the JVM has them, looked up
+     * reflectively since the plugin is compiled for older JVMs, or else the
+     * default factory.
+     */
+    private static ThreadFactory createThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.defaultThreadFactory();
+        }
+    }
+
+    /**
+     * The dependencies to verify, grouped by the directory of their version.
+     */
+    static final class Batch {
+
+        private final Map<String, Directory> directories = new LinkedHashMap<>();
+
+        private int entryCount;
+
+        /**
+         * Adds a dependency.  The type defaults to jar, and an empty
+         * classifier is no classifier.
+         */
+        void add(String groupId, String artifactId, String version, String type, String classifier) {
+            String path = groupId.replace('.', '/') + '/' + artifactId + '/' + ArtifactUtils.toSnapshotVersion(version);
+            Directory directory = directories.get(path);
+            if (directory == null) {
+                directory = new Directory(path);
+                directories.put(path, directory);
+            }
+            directory.entries.add(new String[] {groupId, artifactId, version, type == null || type.isEmpty() ? "jar" : type,
+                    classifier == null || classifier.isEmpty() ? null : classifier});
+            entryCount++;
+        }
+    }
+
+    /**
+     * The dependencies stored in one directory of the repository.
+     */
+    private static final class Directory {
+
+        private final String path;
+
+        private final List<String[]> entries = new ArrayList<>(1);
+
+        private Directory(String path) {
+            this.path = path;
+        }
+
+        /**
+         * Lists the directory and adds a line to <code>missing</code> for each
+         * dependency whose POM or file it lacks.
+         */
+        private void verify(File repository, List<String> missing) {
+            String[] names = new File(repository, path).list();
+            Set<String> files = names == null ? Collections.<String>emptySet() : new HashSet<>(Arrays.asList(names));
+            for (String[] entry : entries) {
+                String artifactId = entry[1];
+                String version = entry[2];
+                String type = entry[3];
+                String[] handler = TYPES.get(type);
+                String extension = handler == null ? type : handler[0];
+                String classifier = entry[4] != null || handler == null ? entry[4] : handler[1];
+
+                List<String> lacking = new ArrayList<>(2);
+                String pom = fileName(artifactId, version, null, "pom");
+                if (!exists(files, pom)) {
+                    lacking.add(pom);
+                }
+                if (!"pom".equals(type)) {
+                    String file = fileName(artifactId, version, classifier, extension);
+                    if (!exists(files, file)) {
+                        lacking.add(file);
+                    }
+                }
+                if (!lacking.isEmpty()) {
+                    missing.add(entry[0] + ':' + artifactId + ':' + type + (entry[4] == null ? "" : ':' + entry[4]) + ':'
+                            + version + " - " + path + '/' + (lacking.size() == 1 ? lacking.get(0) : lacking.toString()));
+                }
+            }
+        }
+
+        private static String fileName(String artifactId, String version, String classifier, String extension) {
+            return artifactId + '-' + version + (classifier == null ? "" : '-' + classifier) + '.' + extension;
+        }
+
+        /**
+         * Whether the file exists, or for a snapshot whether a file with a
+         * timestamped version does, as deployed to a remote repository.
+         */
+        private static boolean exists(Set<String> files, String fileName) {
+            if (files.contains(fileName)) {
+                return true;
+            }
+            int snapshot = fileName.indexOf("-SNAPSHOT");
+            if (snapshot < 0) {
+                return false;
+            }
+            String prefix = fileName.substring(0, snapshot + 1);
+            String suffix = fileName.substring(snapshot + "-SNAPSHOT".length());
+            for (String file : files) {
+                if (file.startsWith(prefix) && file.endsWith(suffix)
+                        && ArtifactUtils.isSnapshot(file.substring(0, file.length() - suffix.length()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The result of a verification.
+     */
+    static final class Report {
+
+        private final File repository;
+
+        private final int checked;
+
+        private final List<String> missing;
+
+        private Report(File repository, int checked, List<String> missing) {
+            this.repository = repository;
+            this.checked = checked;
+            this.missing = missing;
+        }
+
+        int getChecked() {
+            return checked;
+        }
+
+        /**
+         * One line per dependency with missing files, naming the
+         * dependency and the files, in the order of the dependencies.
+         */
+        List<String> getMissing() {
+            return missing;
+        }
+
+        boolean isComplete() {
+            return missing.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(missing.size()).append(" of ").append(checked).append(" dependencies are missing from ")
+                    .append(repository).append(':');
+            for (String line : missing) {
+                report.append("\n  ").append(line);
+            }
+            return report.toString();
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Properties;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.xml.pull.MXSerializer;
+import org.codehaus.plexus.util.xml.pull.XmlSerializer;
+
+/**
+ * Writes a BOM without building its dependency management section in memory.
+ *
+ * The header (coordinates, name, description and properties) is taken from a
+ * {@link Model}, the managed dependencies are written one by one as they are
+ * returned by an iterator.  The serializer is set up and driven exactly like
+ * <code>MavenXpp3Writer</code> does, so the output is byte for byte the same
+ * as {@link BuildBomMojo.ModelWriter} writing the equivalent model.
+ */
+class StreamingBomWriter {
+
+    private static final String NAMESPACE = null;
+
+    /**
+     * Writes the file atomically, with its <code>.sha1</code> and
+     * <code>.sha256</code> checksum files.
+     *
+     * @return <code>true</code> if the file was written, <code>false</code> if
+     *         it already had the same content
+     */
+    boolean writeBom( Model header, Iterator<Dependency> dependencies, File outputFile )
+        throws MojoExecutionException
+    {
+        return writeBom( header, dependencies, outputFile, null );
+    }
+
+    /**
+     * Writes the file like {@link #writeBom(Model, Iterator, File)}, giving
+     * the bytes of the file and its checksums to the recorder unless it is
+     * <code>null</code>.
+     */
+    boolean writeBom( final Model header, final Iterator<Dependency> dependencies, File outputFile,
+                      OutputFiles.Recorder recorder )
+        throws MojoExecutionException
+    {
+        try
+        {
+            return OutputFiles.writeWithChecksums( outputFile, new OutputFiles.Content()
+            {
+                @Override
+                public void writeTo( Writer writer )
+                    throws IOException
+                {
+                    writeBom( header, dependencies, writer );
+                }
+            }, recorder );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to write pom file.", e );
+        }
+    }
+
+    void writeBom( Model header, Iterator<Dependency> dependencies, Writer writer )
+        throws IOException
+    {
+        XmlSerializer serializer = new MXSerializer();
+        serializer.setProperty( "http://xmlpull.org/v1/doc/properties.html#serializer-indentation", "  " );
+        serializer.setProperty( "http://xmlpull.org/v1/doc/properties.html#serializer-line-separator", "\n" );
+        serializer.setOutput( writer );
+        serializer.startDocument( header.getModelEncoding(), null );
+
+        serializer.setPrefix( "", "http://maven.apache.org/POM/4.0.0" );
+        serializer.setPrefix( "xsi", "http://www.w3.org/2001/XMLSchema-instance" );
+        serializer.startTag( NAMESPACE, "project" );
+        serializer.attribute( "", "xsi:schemaLocation", "http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd" );
+        writeElement( serializer, "modelVersion", header.getModelVersion() );
+        writeElement( serializer, "groupId", header.getGroupId() );
+        writeElement( serializer, "artifactId", header.getArtifactId() );
+        writeElement( serializer, "version", header.getVersion() );
+        if ( header.getPackaging() != null && !header.getPackaging().equals( "jar" ) )
+        {
+            writeElement( serializer, "packaging", header.getPackaging() );
+        }
+        writeElement( serializer, "name", header.getName() );
+        writeElement( serializer, "description", header.getDescription() );
+        writeProperties( serializer, header.getProperties() );
+
+        serializer.startTag( NAMESPACE, "dependencyManagement" );
+        if ( dependencies.hasNext() )
+        {
+            serializer.startTag( NAMESPACE, "dependencies" );
+            while ( dependencies.hasNext() )
+            {
+                writeDependency( serializer, dependencies.next() );
+            }
+            serializer.endTag( NAMESPACE, "dependencies" );
+        }
+        serializer.endTag( NAMESPACE, "dependencyManagement" );
+
+        serializer.endTag( NAMESPACE, "project" );
+        serializer.endDocument();
+    }
+
+    private void writeProperties( XmlSerializer serializer, Properties properties )
+        throws IOException
+    {
+        if ( properties == null || properties.isEmpty() )
+        {
+            return;
+        }
+        serializer.startTag( NAMESPACE, "properties" );
+        for ( Object key : properties.keySet() )
+        {
+            writeElement( serializer, (String) key, (String) properties.get( key ) );
+        }
+        serializer.endTag( NAMESPACE, "properties" );
+    }
+
+    private void writeDependency( XmlSerializer serializer, Dependency dependency )
+        throws IOException
+    {
+        serializer.startTag( NAMESPACE, "dependency" );
+        writeElement( serializer, "groupId", dependency.getGroupId() );
+        writeElement( serializer, "artifactId", dependency.getArtifactId() );
+        writeElement( serializer, "version", dependency.getVersion() );
+        if ( dependency.getType() != null && !dependency.getType().equals( "jar" ) )
+        {
+            writeElement( serializer, "type", dependency.getType() );
+        }
+        writeElement( serializer, "classifier", dependency.getClassifier() );
+        writeElement( serializer, "scope", dependency.getScope() );
+        writeElement( serializer, "systemPath", dependency.getSystemPath() );
+        if ( dependency.getExclusions() != null && !dependency.getExclusions().isEmpty() )
+        {
+            serializer.startTag( NAMESPACE, "exclusions" );
+            for ( Exclusion exclusion : dependency.getExclusions() )
+            {
+                serializer.startTag( NAMESPACE, "exclusion" );
+                writeElement( serializer, "artifactId", exclusion.getArtifactId() );
+                writeElement( serializer, "groupId", exclusion.getGroupId() );
+                serializer.endTag( NAMESPACE, "exclusion" );
+            }
+            serializer.endTag( NAMESPACE, "exclusions" );
+        }
+        writeElement( serializer, "optional", dependency.getOptional() );
+        serializer.endTag( NAMESPACE, "dependency" );
+    }
+
+    private void writeElement( XmlSerializer serializer, String name, String value )
+        throws IOException
+    {
+        if ( value != null )
+        {
+            serializer.startTag( NAMESPACE, name ).text( value ).endTag( NAMESPACE, name );
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+
+/**
+ * Writes the BOM as a Gradle version catalog in TOML, such as
+ * <code>gradle/libs.versions.toml</code>.
+ *
+ * Each version property referenced by a dependency becomes a version of the
+ * catalog, and each groupId:artifactId a library named after them, whose
+ * version refers to that version or is given inline.  Catalog libraries have
+ * no type or classifier, so the first dependency of each groupId:artifactId,
+ * in the artifactOrder, gives its version.  Names are made of lower case
+ * letters, digits and dashes, as Gradle expects.
+ */
+class VersionCatalogWriter implements BomFormatWriter {
+
+    /**
+     * The first segments Gradle reserves for the accessors of a catalog.
+     */
+    private static final Set<String> RESERVED = new HashSet<>(Arrays.asList("bundles", "versions", "plugins"));
+
+    @Override
+    public String getName() {
+        return "version-catalog";
+    }
+
+    @Override
+    public String getFileSuffix() {
+        return ".versions.toml";
+    }
+
+    @Override
+    public void write(Model header, Iterator<Dependency> dependencies, Writer writer) throws IOException {
+        // the versions come first but are only known once the libraries are seen
+        StringBuilder libraries = new StringBuilder();
+        Map<String, String> versionAliases = new HashMap<>();
+        Set<String> takenVersionAliases = new HashSet<>();
+        Set<String> libraryAliases = new HashSet<>();
+        // the dependencies of a groupId:artifactId are only adjacent in the ga artifactOrder
+        Set<GroupArtifactKey> written = new HashSet<>();
+        while (dependencies.hasNext()) {
+            Dependency dependency = dependencies.next();
+            if (!written.add(new GroupArtifactKey(dependency.getGroupId(), dependency.getArtifactId()))) {
+                continue;
+            }
+            String alias = unique(toAlias(dependency.getGroupId() + "-" + dependency.getArtifactId()), libraryAliases);
+            libraries.append(alias).append(" = { module = ")
+                    .append(BomMetrics.quote(dependency.getGroupId() + ":" + dependency.getArtifactId()));
+            String property = BomFormats.getVersionProperty(dependency);
+            if (property != null && header.getProperties() != null && header.getProperties().getProperty(property) != null) {
+                String versionAlias = versionAliases.get(property);
+                if (versionAlias == null) {
+                    versionAlias = unique(toAlias(property), takenVersionAliases);
+                    versionAliases.put(property, versionAlias);
+                }
+                libraries.append(", version.ref = ").append(BomMetrics.quote(versionAlias));
+            } else {
+                libraries.append(", version = ").append(BomMetrics.quote(dependency.getVersion()));
+            }
+            libraries.append(" }\n");
+        }
+
+        writer.write("# Generated from " + header.getGroupId() + ":" + header.getArtifactId() + ":"
+                + header.getVersion() + "\n\n");
+        writer.write("[versions]\n");
+        if (!versionAliases.isEmpty()) {
+            // in the order of the properties of the BOM
+            for (Object key : header.getProperties().keySet()) {
+                String versionAlias = versionAliases.get(key);
+                if (versionAlias != null) {
+                    writer.write(versionAlias + " = " + BomMetrics.quote(header.getProperties().getProperty((String) key))
+                            + "\n");
+                }
+            }
+        }
+        writer.write("\n[libraries]\n");
+        writer.write(libraries.toString());
+    }
+
+    /**
+     * Turns a name into a catalog alias: lower case letters and digits
+     * separated by dashes, starting with a letter and not with a reserved
+     * segment.
+     */
+    static String toAlias(String name) {
+        StringBuilder alias = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                alias.append(c);
+            } else if (alias.length() > 0 && alias.charAt(alias.length() - 1) != '-') {
+                alias.append('-');
+            }
+        }
+        if (alias.length() > 0 && alias.charAt(alias.length() - 1) == '-') {
+            alias.setLength(alias.length() - 1);
+        }
+        int firstSegmentEnd = alias.indexOf("-");
+        String firstSegment = firstSegmentEnd < 0 ? alias.toString() : alias.substring(0, firstSegmentEnd);
+        if (alias.length() == 0 || alias.charAt(0) < 'a' || RESERVED.contains(firstSegment)) {
+            alias.insert(0, alias.length() == 0 ? "lib" : "lib-");
+        }
+        return alias.toString();
+    }
+
+    /**
+     * Returns the alias, or the alias followed by a number if it is taken,
+     * and records it as taken.
+     */
+    private static String unique(String alias, Set<String> taken) {
+        String unique = alias;
+        for (int i = 2; !taken.add(unique); i++) {
+            unique = alias + "-" + i;
+        }
+        return unique;
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.maven.model.Dependency;
+
+/**
+ * The version properties planned by {@link VersionPropertyPlanner}: the
+ * properties in the order they should be written, and the property used by
+ * each groupId:artifactId.  A plan is not modified once planned, so it can be
+ * shared.
+ */
+class VersionPropertyPlan {
+
+    private final Map<String, String> properties = new LinkedHashMap<>();
+
+    private final Map<GroupArtifactKey, String> versionReferences = new HashMap<>();
+
+    void addProperty(String propertyName, String version) {
+        properties.put(propertyName, version);
+    }
+
+    void addReference(GroupArtifactKey key, String versionReference) {
+        versionReferences.put(key, versionReference);
+    }
+
+    /**
+     * The number of artifacts referencing a property.
+     */
+    int getReferenceCount() {
+        return versionReferences.size();
+    }
+
+    Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Sets all planned properties, in order.
+     */
+    void addPropertiesTo(Properties target) {
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            target.setProperty(property.getKey(), property.getValue());
+        }
+    }
+
+    /**
+     * Returns the "${...}" reference to the version property of the given
+     * artifact, or <code>null</code> if it was not planned.
+     */
+    String getVersionReference(String groupId, String artifactId) {
+        return versionReferences.get(new GroupArtifactKey(groupId, artifactId));
+    }
+
+    /**
+     * Replaces the version of the dependency with a reference to its version
+     * property.
+     */
+    void applyTo(Dependency dependency) {
+        dependency.setVersion(getVersionReference(dependency.getGroupId(), dependency.getArtifactId()));
+    }
+
+}
@@ -0,0 +1,272 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans the <code>version.*</code> properties of a BOM.
+ *
+ * All artifacts of a groupId share a <code>version.&lt;groupId&gt;</code>
+ * property when they have the same version, otherwise each artifact gets a
+ * <code>version.&lt;groupId&gt;.&lt;artifactId&gt;</code> property.  When an
+ * artifact is added several times (e.g. with different classifiers) the last
+ * version added is used.  Properties are planned in groupId order, then in
+ * artifactId order.
+ *
+ * When properties are shared across groups (see
+ * {@link #setShareAcrossGroups(boolean)}), a groupId whose artifacts all have
+ * the same version shares the property of the shortest groupId which is a
+ * dotted prefix of it and whose artifacts all have that version, such as
+ * <code>io.netty.incubator</code> and <code>io.netty</code>, which share
+ * <code>version.io.netty</code>.  Groups which merely start alike, such as
+ * <code>org.apache.foo</code> and <code>org.apache.bar</code>, do not share a
+ * property.  A shared property is named after a groupId which would have
+ * that property anyway, so sharing never introduces a new property name.
+ *
+ * The planner sorts the added artifacts once (not at all if they were added
+ * in order, which is the case for the sorted project artifacts) and then
+ * builds the plan in a single pass over them.  The keys and versions of the
+ * artifacts are taken from a {@link CoordinatePool}, so that the plan does not
+ * retain a copy of them per artifact.
+ */
+class VersionPropertyPlanner {
+
+    static final String VERSION_PROPERTY_PREFIX = "version.";
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final CoordinatePool pool;
+
+    private boolean sorted = true;
+
+    private boolean shareAcrossGroups;
+
+    VersionPropertyPlanner() {
+        this(new CoordinatePool());
+    }
+
+    VersionPropertyPlanner(CoordinatePool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Whether groups with the same version as a group whose groupId is a
+     * dotted prefix of theirs share its property.
+     */
+    void setShareAcrossGroups(boolean shareAcrossGroups) {
+        this.shareAcrossGroups = shareAcrossGroups;
+    }
+
+    void add(String groupId, String artifactId, String version) {
+        Entry entry = new Entry(pool.key(groupId, artifactId), pool.share(version));
+        if (sorted && !entries.isEmpty() && entries.get(entries.size() - 1).key.compareTo(entry.key) > 0) {
+            sorted = false;
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * A digest of everything the plan depends on: the last version added for
+     * each groupId:artifactId and whether properties are shared across
+     * groups.  Artifacts added in another order, or which only differ by
+     * type or classifier, have the same key, and so the same plan.
+     */
+    String toKey() {
+        sort();
+        BomFingerprint key = new BomFingerprint().add("shareAcrossGroups", shareAcrossGroups);
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (i + 1 == entries.size() || !entry.key.equals(entries.get(i + 1).key)) {
+                // a groupId cannot contain ':', so the name is not ambiguous
+                key.add(entry.key.toString(), entry.version);
+            }
+        }
+        return key.toHex();
+    }
+
+    VersionPropertyPlan plan() {
+        sort();
+        List<Group> groups = new ArrayList<>();
+        int groupStart = 0;
+        while (groupStart < entries.size()) {
+            int groupEnd = groupStart + 1;
+            while (groupEnd < entries.size() && entries.get(groupEnd).key.hasSameGroupId(entries.get(groupStart).key)) {
+                groupEnd++;
+            }
+            Group group = new Group(entries.get(groupStart).key.getGroupId());
+            for (int i = groupStart; i < groupEnd; i++) {
+                Entry entry = entries.get(i);
+                if (i + 1 == groupEnd || !entry.key.equals(entries.get(i + 1).key)) {
+                    // last entry of its groupId:artifactId
+                    group.entries.add(entry);
+                }
+            }
+            groups.add(group);
+            groupStart = groupEnd;
+        }
+        if (shareAcrossGroups) {
+            shareProperties(groups);
+        }
+
+        VersionPropertyPlan plan = new VersionPropertyPlan();
+        for (Group group : groups) {
+            SharedProperty shared = group.sharedProperty;
+            if (shared == null) {
+                planGroup(group.entries, plan);
+                continue;
+            }
+            if (shared.groups.get(0) == group) {
+                plan.addProperty(shared.propertyName, group.getVersion());
+            }
+            String reference = toReference(shared.propertyName);
+            for (Entry entry : group.entries) {
+                plan.addReference(entry.key, reference);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Assigns a shared property to each group with a single version and the
+     * groups with that version whose groupIds it is a dotted prefix of.  A
+     * group joins the property of the shortest such groupId, which sorts
+     * first, so the property is named after the first group sharing it.
+     */
+    private static void shareProperties(List<Group> groups) {
+        Map<String, String> versions = new HashMap<>();
+        for (Group group : groups) {
+            String version = group.getVersion();
+            if (version != null) {
+                versions.put(group.groupId, version);
+            }
+        }
+        Map<String, SharedProperty> candidates = new LinkedHashMap<>();
+        for (Group group : groups) {
+            String version = versions.get(group.groupId);
+            if (version == null) {
+                continue;
+            }
+            String root = group.groupId;
+            for (int dot = root.indexOf('.'); dot >= 0; dot = root.indexOf('.', dot + 1)) {
+                if (version.equals(versions.get(root.substring(0, dot)))) {
+                    root = root.substring(0, dot);
+                    break;
+                }
+            }
+            SharedProperty shared = candidates.get(root);
+            if (shared == null) {
+                shared = new SharedProperty(VERSION_PROPERTY_PREFIX + root);
+                candidates.put(root, shared);
+            }
+            shared.groups.add(group);
+        }
+        for (SharedProperty shared : candidates.values()) {
+            if (shared.groups.size() > 1) {
+                for (Group group : shared.groups) {
+                    group.sharedProperty = shared;
+                }
+            }
+        }
+    }
+
+    private void sort() {
+        if (!sorted) {
+            // stable, so the last version added for a groupId:artifactId stays last
+            Collections.sort(entries);
+            sorted = true;
+        }
+    }
+
+    private static void planGroup(List<Entry> group, VersionPropertyPlan plan) {
+        String groupId = group.get(0).key.getGroupId();
+        if (allHaveSameVersion(group)) {
+            String propertyName = VERSION_PROPERTY_PREFIX + groupId;
+            String reference = toReference(propertyName);
+            plan.addProperty(propertyName, group.get(0).version);
+            for (Entry entry : group) {
+                plan.addReference(entry.key, reference);
+            }
+        } else {
+            for (Entry entry : group) {
+                String propertyName = VERSION_PROPERTY_PREFIX + groupId + "." + entry.key.getArtifactId();
+                plan.addProperty(propertyName, entry.version);
+                plan.addReference(entry.key, toReference(propertyName));
+            }
+        }
+    }
+
+    private static boolean allHaveSameVersion(List<Entry> group) {
+        String version = group.get(0).version;
+        for (int i = 1; i < group.size(); i++) {
+            if (!version.equals(group.get(i).version)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String toReference(String propertyName) {
+        return "${" + propertyName + "}";
+    }
+
+    private static class Entry implements Comparable<Entry> {
+
+        private final GroupArtifactKey key;
+
+        private final String version;
+
+        private Entry(GroupArtifactKey key, String version) {
+            this.key = key;
+            this.version = version;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return key.compareTo(other.key);
+        }
+    }
+
+    /**
+     * The last entry of each artifact of a groupId.
+     */
+    private static class Group {
+
+        private final String groupId;
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private SharedProperty sharedProperty;
+
+        private Group(String groupId) {
+            this.groupId = groupId;
+        }
+
+        /**
+         * The version of all artifacts, or <code>null</code> if they have
+         * different versions.
+         */
+        private String getVersion() {
+            return allHaveSameVersion(entries) ? entries.get(0).version : null;
+        }
+    }
+
+    /**
+     * A property shared by a group and the groups with the same version below
+     * it, the first group being the one it is named after.
+     */
+    private static class SharedProperty {
+
+        private final String propertyName;
+
+        private final List<Group> groups = new ArrayList<>();
+
+        private SharedProperty(String propertyName) {
+            this.propertyName = propertyName;
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ArtifactOrderTest {
+
+    private static final String[] VERSIONS = {"1.0", "1.0.1", "1.10", "1.9", "2.0-SNAPSHOT", "2.0", "2.0-beta-1"};
+
+    private static final String[] CLASSIFIERS = {null, "sources", "tests", ""};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testGaOrderIsTheArtifactOrder() {
+        Random random = new Random(42);
+        List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            artifacts.add(createArtifact("org.test.group" + random.nextInt(20), "artifact-" + random.nextInt(10),
+                    VERSIONS[random.nextInt(VERSIONS.length)], random.nextBoolean() ? "jar" : "test-jar",
+                    CLASSIFIERS[random.nextInt(CLASSIFIERS.length)], "compile"));
+        }
+        List<Artifact> expected = new ArrayList<>(artifacts);
+        Collections.sort(expected);
+
+        ArtifactOrder.GA.sort(artifacts);
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), artifacts.get(i));
+        }
+    }
+
+    @Test
+    public void testGroupSizeAndScopeOrders() {
+        List<Artifact> artifacts = Arrays.asList(
+                createArtifact("junit", "junit", "4.10", "jar", null, "test"),
+                createArtifact("org.hamcrest", "hamcrest-library", "1.1", "jar", null, "test"),
+                createArtifact("org.hamcrest", "hamcrest-core", "1.1", "jar", null, "compile"),
+                createArtifact("org.b", "b", "1.0", "jar", null, "provided"),
+                createArtifact("org.a", "a", "1.0", "jar", null, null),
+                createArtifact("org.c", "c", "1.0", "jar", null, "custom"));
+
+        ArtifactOrder.GROUP_SIZE.sort(artifacts);
+
+        assertEquals("[org.hamcrest:hamcrest-core, org.hamcrest:hamcrest-library, junit:junit, org.a:a, org.b:b, org.c:c]",
+                toIds(artifacts));
+
+        ArtifactOrder.SCOPE.sort(artifacts);
+
+        assertEquals("[org.a:a, org.hamcrest:hamcrest-core, org.b:b, junit:junit, org.hamcrest:hamcrest-library, org.c:c]",
+                toIds(artifacts));
+    }
+
+    @Test
+    public void testOrderNames() {
+        assertSame(ArtifactOrder.GROUP_SIZE, ArtifactOrder.parse(" group-size "));
+        assertSame(ArtifactOrder.SCOPE, ArtifactOrder.parse("Scope"));
+        assertNull(ArtifactOrder.parse("version"));
+        assertEquals("group-size", ArtifactOrder.GROUP_SIZE.getName());
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testUnknownOrderIsRejected() throws Exception {
+        createMojo("version").execute();
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testPreviousBomRequiresTheGaOrder() throws Exception {
+        BuildBomMojo mojo = createMojo("scope");
+        mojo.previousBom = temporaryFolder.newFile("previous-bom.xml");
+        mojo.execute();
+    }
+
+    private BuildBomMojo createMojo(String artifactOrder) throws Exception {
+        File directory = temporaryFolder.newFolder();
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(directory.getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<>(Arrays.asList(
+                createArtifact("junit", "junit", "4.10", "jar", null, "compile"))));
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.artifactOrder = artifactOrder;
+        return mojo;
+    }
+
+    private static String toIds(List<Artifact> artifacts) {
+        List<String> ids = new ArrayList<>();
+        for (Artifact artifact : artifacts) {
+            ids.add(artifact.getGroupId() + ":" + artifact.getArtifactId());
+        }
+        return ids.toString();
+    }
+
+    private static Artifact createArtifact(String groupId, String artifactId, String version, String type,
+                                           String classifier, String scope) {
+        return new DefaultArtifact(groupId, artifactId, version, scope, type, classifier, new DefaultArtifactHandler(type));
+    }
+
+}
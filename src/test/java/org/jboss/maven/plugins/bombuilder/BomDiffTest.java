@@ -0,0 +1,208 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BomDiffTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testChangesAreReported() throws Exception {
+        File previousBom = writePreviousBom(
+                "  <properties>\n"
+                + "    <version.org.test>1.0</version.org.test>\n"
+                + "    <removed>x</removed>\n"
+                + "  </properties>\n"
+                + "  <dependencyManagement>\n"
+                + "    <dependencies>\n"
+                + "      <dependency>\n"
+                + "        <groupId>org.removed</groupId>\n"
+                + "        <artifactId>removed</artifactId>\n"
+                + "        <version>1.0</version>\n"
+                + "      </dependency>\n"
+                + "      <dependency>\n"
+                + "        <groupId>org.test</groupId>\n"
+                + "        <artifactId>core</artifactId>\n"
+                + "        <version>${version.org.test}</version>\n"
+                + "        <exclusions>\n"
+                + "          <exclusion>\n"
+                + "            <groupId>org.excluded</groupId>\n"
+                + "            <artifactId>excluded</artifactId>\n"
+                + "          </exclusion>\n"
+                + "        </exclusions>\n"
+                + "      </dependency>\n"
+                + "      <dependency>\n"
+                + "        <groupId>org.test</groupId>\n"
+                + "        <artifactId>core</artifactId>\n"
+                + "        <version>1.0</version>\n"
+                + "        <type>test-jar</type>\n"
+                + "        <classifier>tests</classifier>\n"
+                + "      </dependency>\n"
+                + "      <dependency>\n"
+                + "        <groupId>org.test</groupId>\n"
+                + "        <artifactId>downgraded</artifactId>\n"
+                + "        <version>2.0</version>\n"
+                + "      </dependency>\n"
+                + "      <dependency>\n"
+                + "        <groupId>org.test</groupId>\n"
+                + "        <artifactId>same</artifactId>\n"
+                + "        <version>1.0</version>\n"
+                + "      </dependency>\n"
+                + "    </dependencies>\n"
+                + "  </dependencyManagement>\n");
+        Properties properties = new OrderedProperties();
+        properties.setProperty("version.org.test", "1.1");
+        properties.setProperty("added", "y");
+
+        StringWriter json = new StringWriter();
+        BomDiff diff = BomDiff.compare(previousBom, Arrays.asList(
+                new BomDiff.Entry("org.added", "added", null, null, "1.0"),
+                new BomDiff.Entry("org.test", "core", "jar", "", "1.1"),
+                new BomDiff.Entry("org.test", "core", "jar", "sources", "1.1"),
+                new BomDiff.Entry("org.test", "downgraded", "jar", null, "1.9"),
+                new BomDiff.Entry("org.test", "same", "jar", null, "1.0.0")).iterator(), properties, json,
+                "org.test:test-bom:2.0");
+
+        assertEquals(2, diff.getCount(BomDiff.Change.ADDED));
+        assertEquals(2, diff.getCount(BomDiff.Change.REMOVED));
+        assertEquals(1, diff.getCount(BomDiff.Change.UPGRADED));
+        assertEquals(1, diff.getCount(BomDiff.Change.DOWNGRADED));
+        assertEquals(1, diff.getCount(BomDiff.Change.CHANGED));
+        assertEquals(3, diff.getPropertyChangeCount());
+        assertEquals("{\n"
+                + "  \"bom\": \"org.test:test-bom:2.0\",\n"
+                + "  \"previousBom\": " + BomMetrics.quote(previousBom.getPath()) + ",\n"
+                + "  \"dependencies\": [\n"
+                + "    { \"change\": \"added\", \"groupId\": \"org.added\", \"artifactId\": \"added\", \"type\": \"jar\", \"classifier\": null, \"previousVersion\": null, \"version\": \"1.0\" },\n"
+                + "    { \"change\": \"removed\", \"groupId\": \"org.removed\", \"artifactId\": \"removed\", \"type\": \"jar\", \"classifier\": null, \"previousVersion\": \"1.0\", \"version\": null },\n"
+                + "    { \"change\": \"upgraded\", \"groupId\": \"org.test\", \"artifactId\": \"core\", \"type\": \"jar\", \"classifier\": null, \"previousVersion\": \"1.0\", \"version\": \"1.1\" },\n"
+                + "    { \"change\": \"removed\", \"groupId\": \"org.test\", \"artifactId\": \"core\", \"type\": \"test-jar\", \"classifier\": \"tests\", \"previousVersion\": \"1.0\", \"version\": null },\n"
+                + "    { \"change\": \"added\", \"groupId\": \"org.test\", \"artifactId\": \"core\", \"type\": \"jar\", \"classifier\": \"sources\", \"previousVersion\": null, \"version\": \"1.1\" },\n"
+                + "    { \"change\": \"downgraded\", \"groupId\": \"org.test\", \"artifactId\": \"downgraded\", \"type\": \"jar\", \"classifier\": null, \"previousVersion\": \"2.0\", \"version\": \"1.9\" },\n"
+                + "    { \"change\": \"changed\", \"groupId\": \"org.test\", \"artifactId\": \"same\", \"type\": \"jar\", \"classifier\": null, \"previousVersion\": \"1.0\", \"version\": \"1.0.0\" }\n"
+                + "  ],\n"
+                + "  \"properties\": [\n"
+                + "    { \"change\": \"changed\", \"name\": \"version.org.test\", \"previousValue\": \"1.0\", \"value\": \"1.1\" },\n"
+                + "    { \"change\": \"removed\", \"name\": \"removed\", \"previousValue\": \"x\", \"value\": null },\n"
+                + "    { \"change\": \"added\", \"name\": \"added\", \"previousValue\": null, \"value\": \"y\" }\n"
+                + "  ],\n"
+                + "  \"summary\": { \"added\": 2, \"removed\": 2, \"upgraded\": 1, \"downgraded\": 1, \"changed\": 1, \"properties\": 3 }\n"
+                + "}\n", json.toString());
+    }
+
+    @Test(expected = BomDiff.UnsortedBomException.class)
+    public void testUnsortedPreviousBomIsRejected() throws Exception {
+        File previousBom = writePreviousBom(
+                "  <dependencyManagement>\n"
+                + "    <dependencies>\n"
+                + "      <dependency><groupId>org.b</groupId><artifactId>b</artifactId><version>1</version></dependency>\n"
+                + "      <dependency><groupId>org.a</groupId><artifactId>a</artifactId><version>1</version></dependency>\n"
+                + "    </dependencies>\n"
+                + "  </dependencyManagement>\n");
+
+        BomDiff.compare(previousBom, Arrays.<BomDiff.Entry>asList().iterator(), new Properties());
+    }
+
+    @Test
+    public void testDiffIsWrittenNextToTheBom() throws Exception {
+        File previousBom = new File(execute(null, createArtifact("junit", "junit", "4.8"),
+                createArtifact("org.hamcrest", "hamcrest-core", "1.1")).getBuild().getDirectory(), "bom-pom.xml");
+
+        MavenProject project = execute(previousBom, createArtifact("junit", "junit", "4.10"));
+
+        String diff = new String(Files.readAllBytes(new File(project.getBuild().getDirectory(), "bom-pom-diff.json").toPath()),
+                StandardCharsets.UTF_8);
+        assertTrue(diff, diff.contains("\"summary\": { \"added\": 0, \"removed\": 1, \"upgraded\": 1, \"downgraded\": 0, \"changed\": 0, \"properties\": 2 }"));
+        assertTrue(diff, diff.contains("\"name\": \"version.junit\", \"previousValue\": \"4.8\", \"value\": \"4.10\""));
+    }
+
+    @Test
+    public void testUnsortedPreviousBomIsNotCompared() throws Exception {
+        File previousBom = writePreviousBom(
+                "  <dependencyManagement>\n"
+                + "    <dependencies>\n"
+                + "      <dependency><groupId>org.b</groupId><artifactId>b</artifactId><version>1</version></dependency>\n"
+                + "      <dependency><groupId>org.a</groupId><artifactId>a</artifactId><version>1</version></dependency>\n"
+                + "    </dependencies>\n"
+                + "  </dependencyManagement>\n");
+
+        MavenProject project = execute(previousBom, createArtifact("junit", "junit", "4.10"));
+
+        assertTrue(new File(project.getBuild().getDirectory(), "bom-pom.xml").isFile());
+        assertFalse(new File(project.getBuild().getDirectory(), "bom-pom-diff.json").exists());
+    }
+
+    @Test
+    public void testUpToDateBomIsStillCompared() throws Exception {
+        File previousBom = new File(execute(null, createArtifact("junit", "junit", "4.8")).getBuild().getDirectory(),
+                "bom-pom.xml");
+        BuildBomMojo mojo = createMojo(previousBom, createArtifact("junit", "junit", "4.10"));
+        mojo.incremental = true;
+        mojo.execute();
+        File diffFile = new File(mojo.mavenProject.getBuild().getDirectory(), "bom-pom-diff.json");
+        Files.write(diffFile.toPath(), "{}".getBytes(StandardCharsets.UTF_8));
+
+        mojo.execute();
+
+        String diff = new String(Files.readAllBytes(diffFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(diff, diff.contains("\"summary\": { \"added\": 0, \"removed\": 0, \"upgraded\": 1,"));
+    }
+
+    private MavenProject execute(File previousBom, Artifact... artifacts) throws Exception {
+        BuildBomMojo mojo = createMojo(previousBom, artifacts);
+        mojo.execute();
+        return mojo.mavenProject;
+    }
+
+    private BuildBomMojo createMojo(File previousBom, Artifact... artifacts) throws IOException {
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.newFolder().getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<>(Arrays.asList(artifacts)));
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.usePropertiesForVersion = true;
+        mojo.previousBom = previousBom;
+        return mojo;
+    }
+
+    private File writePreviousBom(String content) throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <dependencies>\n"
+                + "    <dependency><groupId>org.ignored</groupId><artifactId>ignored</artifactId></dependency>\n"
+                + "  </dependencies>\n"
+                + content
+                + "</project>\n").getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private Artifact createArtifact(String groupId, String artifactId, String version) {
+        return new DefaultArtifact(groupId, artifactId, version, "compile", "jar", null, new DefaultArtifactHandler("jar"));
+    }
+
+}
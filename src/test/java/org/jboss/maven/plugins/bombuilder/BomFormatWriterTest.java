@@ -0,0 +1,174 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+public class BomFormatWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testFormatsAreWrittenNextToTheBom() throws Exception {
+        File directory = execute(false, "gradle-platform", "version-catalog", "json");
+
+        assertEquals("// Generated from org.test:test-bom:1.0\n"
+                + "plugins {\n"
+                + "    `java-platform`\n"
+                + "}\n"
+                + "\n"
+                + "group = \"org.test\"\n"
+                + "version = \"1.0\"\n"
+                + "\n"
+                + "dependencies {\n"
+                + "    constraints {\n"
+                + "        api(\"junit:junit:4.10\")\n"
+                + "        api(\"org.hamcrest:hamcrest-core:1.1\")\n"
+                + "        api(\"org.hamcrest:hamcrest-library:1.1\")\n"
+                + "    }\n"
+                + "}\n", read(directory, "bom-pom-platform.gradle.kts"));
+        assertEquals("# Generated from org.test:test-bom:1.0\n"
+                + "\n"
+                + "[versions]\n"
+                + "version-junit = \"4.10\"\n"
+                + "version-org-hamcrest = \"1.1\"\n"
+                + "\n"
+                + "[libraries]\n"
+                + "junit-junit = { module = \"junit:junit\", version.ref = \"version-junit\" }\n"
+                + "org-hamcrest-hamcrest-core = { module = \"org.hamcrest:hamcrest-core\", version.ref = \"version-org-hamcrest\" }\n"
+                + "org-hamcrest-hamcrest-library = { module = \"org.hamcrest:hamcrest-library\", version.ref = \"version-org-hamcrest\" }\n",
+                read(directory, "bom-pom.versions.toml"));
+        assertEquals("{\n"
+                + "  \"groupId\": \"org.test\",\n"
+                + "  \"artifactId\": \"test-bom\",\n"
+                + "  \"version\": \"1.0\",\n"
+                + "  \"properties\": {\n"
+                + "    \"project.build.sourceEncoding\": \"UTF-8\",\n"
+                + "    \"version.junit\": \"4.10\",\n"
+                + "    \"version.org.hamcrest\": \"1.1\"\n"
+                + "  },\n"
+                + "  \"dependencies\": [\n"
+                + "    { \"groupId\": \"junit\", \"artifactId\": \"junit\", \"version\": \"4.10\", \"versionProperty\": \"version.junit\", \"type\": \"jar\", \"classifier\": \"sources\", \"exclusions\": [] },\n"
+                + "    { \"groupId\": \"junit\", \"artifactId\": \"junit\", \"version\": \"4.10\", \"versionProperty\": \"version.junit\", \"type\": \"jar\", \"classifier\": null, \"exclusions\": [] },\n"
+                + "    { \"groupId\": \"org.hamcrest\", \"artifactId\": \"hamcrest-core\", \"version\": \"1.1\", \"versionProperty\": \"version.org.hamcrest\", \"type\": \"jar\", \"classifier\": null, \"exclusions\": [\"org.excluded:excluded\"] },\n"
+                + "    { \"groupId\": \"org.hamcrest\", \"artifactId\": \"hamcrest-library\", \"version\": \"1.1\", \"versionProperty\": \"version.org.hamcrest\", \"type\": \"jar\", \"classifier\": null, \"exclusions\": [] }\n"
+                + "  ]\n"
+                + "}\n", read(directory, "bom-pom.json"));
+    }
+
+    @Test
+    public void testStreamingWritesTheSameFormats() throws Exception {
+        File modelDirectory = execute(false, "gradle-platform", "version-catalog", "json");
+        File streamingDirectory = execute(true, "gradle-platform", "version-catalog", "json");
+
+        for (String file : Arrays.asList("bom-pom-platform.gradle.kts", "bom-pom.versions.toml", "bom-pom.json")) {
+            assertEquals(read(modelDirectory, file), read(streamingDirectory, file));
+        }
+    }
+
+    @Test
+    public void testEachGroupArtifactIsWrittenOnceInAnyOrder() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(directory.getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<>(Arrays.asList(
+                new DefaultArtifact("junit", "junit", "4.10", "test", "jar", null, new DefaultArtifactHandler("jar")),
+                createArtifact("junit", "junit", "4.10", "sources"),
+                createArtifact("org.hamcrest", "hamcrest-core", "1.1", null))));
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.artifactOrder = "scope";
+        mojo.outputFormats = Arrays.asList("gradle-platform", "version-catalog");
+        mojo.execute();
+
+        assertEquals("// Generated from org.test:test-bom:1.0\n"
+                + "plugins {\n"
+                + "    `java-platform`\n"
+                + "}\n"
+                + "\n"
+                + "group = \"org.test\"\n"
+                + "version = \"1.0\"\n"
+                + "\n"
+                + "dependencies {\n"
+                + "    constraints {\n"
+                + "        api(\"junit:junit:4.10\")\n"
+                + "        api(\"org.hamcrest:hamcrest-core:1.1\")\n"
+                + "    }\n"
+                + "}\n", read(directory, "bom-pom-platform.gradle.kts"));
+        assertEquals("# Generated from org.test:test-bom:1.0\n"
+                + "\n"
+                + "[versions]\n"
+                + "\n"
+                + "[libraries]\n"
+                + "junit-junit = { module = \"junit:junit\", version = \"4.10\" }\n"
+                + "org-hamcrest-hamcrest-core = { module = \"org.hamcrest:hamcrest-core\", version = \"1.1\" }\n",
+                read(directory, "bom-pom.versions.toml"));
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testUnknownFormatIsRejected() throws Exception {
+        execute(false, "sbt");
+    }
+
+    @Test
+    public void testCatalogAliases() {
+        assertEquals("org-apache-commons-commons-lang3", VersionCatalogWriter.toAlias("org.apache.commons-commons-lang3"));
+        assertEquals("io-netty-netty-all", VersionCatalogWriter.toAlias("io.netty-Netty_All"));
+        assertEquals("lib-plugins-core", VersionCatalogWriter.toAlias("plugins-core"));
+        assertEquals("lib-1-2", VersionCatalogWriter.toAlias("1.2."));
+        assertEquals("lib", VersionCatalogWriter.toAlias("..."));
+    }
+
+    private File execute(boolean streamOutput, String... outputFormats) throws Exception {
+        File directory = temporaryFolder.newFolder();
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(directory.getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<>(Arrays.asList(
+                createArtifact("junit", "junit", "4.10", null),
+                createArtifact("junit", "junit", "4.10", "sources"),
+                createArtifact("org.hamcrest", "hamcrest-core", "1.1", null),
+                createArtifact("org.hamcrest", "hamcrest-library", "1.1", null))));
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.usePropertiesForVersion = true;
+        mojo.streamOutput = streamOutput;
+        BomExclusion exclusion = new BomExclusion();
+        exclusion.setDependencyGroupId("org.hamcrest");
+        exclusion.setDependencyArtifactId("hamcrest-core");
+        exclusion.setExclusionGroupId("org.excluded");
+        exclusion.setExclusionArtifactId("excluded");
+        mojo.exclusions = Arrays.asList(exclusion);
+        mojo.outputFormats = Arrays.asList(outputFormats);
+        mojo.execute();
+        return directory;
+    }
+
+    private static String read(File directory, String name) throws Exception {
+        return new String(Files.readAllBytes(new File(directory, name).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private Artifact createArtifact(String groupId, String artifactId, String version, String classifier) {
+        return new DefaultArtifact(groupId, artifactId, version, "compile", "jar", classifier, new DefaultArtifactHandler("jar"));
+    }
+
+}
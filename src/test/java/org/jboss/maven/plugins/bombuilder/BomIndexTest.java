@@ -0,0 +1,117 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BomIndexTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testEveryDependencyIsFound() throws Exception {
+        BomIndex.Builder builder = new BomIndex.Builder();
+        for (int i = 0; i < 5000; i++) {
+            builder.add("org.group" + (i % 37), "artifact-" + i, "1." + i, i % 2 == 0 ? "jar" : "pom", null);
+        }
+        File indexFile = temporaryFolder.newFile();
+        builder.write(indexFile);
+
+        BomIndex index = BomIndex.open(indexFile);
+
+        assertEquals(5000, index.size());
+        for (int i = 0; i < 5000; i++) {
+            List<BomIndex.Entry> entries = index.find("org.group" + (i % 37), "artifact-" + i);
+            assertEquals(1, entries.size());
+            assertEquals("1." + i, entries.get(0).getVersion());
+            assertEquals(i % 2 == 0 ? "jar" : "pom", entries.get(0).getType());
+            assertNull(entries.get(0).getClassifier());
+        }
+        assertTrue(index.find("org.group1", "artifact-0").isEmpty());
+        assertNull(index.findVersion("org.other", "artifact-1"));
+    }
+
+    @Test
+    public void testDependenciesWithClassifiersShareTheirIds() throws Exception {
+        BomIndex.Builder builder = new BomIndex.Builder();
+        builder.add("org.test", "core", "2.0", "test-jar", "tests");
+        builder.add("org.test", "core", "2.0", null, "");
+        builder.add("org.test", "api", "1.0", "jar", null);
+        File indexFile = temporaryFolder.newFile();
+        builder.write(indexFile);
+
+        BomIndex index = BomIndex.open(indexFile);
+
+        assertEquals("[org.test:core:test-jar:tests:2.0, org.test:core:jar:2.0]",
+                index.find("org.test", "core").toString());
+        assertEquals("2.0", index.findVersion("org.test", "core"));
+        assertEquals("1.0", index.findVersion("org.test", "api"));
+    }
+
+    @Test
+    public void testEmptyIndex() throws Exception {
+        File indexFile = temporaryFolder.newFile();
+        new BomIndex.Builder().write(indexFile);
+
+        BomIndex index = BomIndex.open(indexFile);
+
+        assertEquals(0, index.size());
+        assertNull(index.findVersion("junit", "junit"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFileIsRejected() throws Exception {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "<project/>".getBytes(StandardCharsets.UTF_8));
+
+        BomIndex.open(file);
+    }
+
+    @Test
+    public void testIndexIsWrittenNextToTheBom() throws Exception {
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.getRoot().getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(
+                createArtifact("junit", "junit", "4.10"),
+                createArtifact("org.hamcrest", "hamcrest-core", "1.1"))));
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.usePropertiesForVersion = true;
+        mojo.dependencyExclusions = Arrays.asList(new DependencyExclusion("org.hamcrest", "*"));
+        mojo.binaryIndex = true;
+
+        mojo.execute();
+
+        BomIndex index = BomIndex.open(new File(temporaryFolder.getRoot(), "bom-pom.idx"));
+        assertEquals(1, index.size());
+        assertEquals("4.10", index.findVersion("junit", "junit"));
+        assertFalse(index.find("junit", "junit").isEmpty());
+        assertNull(index.findVersion("org.hamcrest", "hamcrest-core"));
+    }
+
+    private Artifact createArtifact(String groupId, String artifactId, String version) {
+        return new DefaultArtifact(groupId, artifactId, version, "compile", "jar", null, new DefaultArtifactHandler("jar"));
+    }
+
+}
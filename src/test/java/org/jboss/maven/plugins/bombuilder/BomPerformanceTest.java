@@ -0,0 +1,198 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.project.MavenProject;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Generates BOMs of 10k to 200k synthetic artifacts through the whole
+ * <code>execute()</code> path and checks the wall time and the bytes
+ * allocated per artifact, so that a change making the generation superlinear
+ * fails.  The sizes, types, classifiers, exclusions and conflicting versions
+ * resemble a large reactor.
+ *
+ * The suite takes a while, so it only runs with the perf-tests profile, or
+ * with -Dbombuilder.perf=true.  The measured costs are reported in the
+ * failure messages.
+ */
+public class BomPerformanceTest {
+
+    private static final String ENABLED = "bombuilder.perf";
+
+    private static final int SMALL = 10000;
+
+    private static final int LARGE = 200000;
+
+    /**
+     * The bytes the calling thread may allocate per artifact.
+     */
+    private static final long BYTES_PER_ARTIFACT = 4 * 1024;
+
+    /**
+     * The wall time per artifact, generous enough for a slow build machine.
+     */
+    private static final long NANOS_PER_ARTIFACT = 100 * 1000;
+
+    /**
+     * How much more a large BOM may cost per artifact than a small one: sorting
+     * adds a logarithmic factor, and the time also varies with the GC.
+     */
+    private static final double MAX_ALLOCATION_GROWTH = 1.5;
+
+    private static final double MAX_TIME_GROWTH = 3;
+
+    private static final String[][] VARIANTS = {
+        {"jar", null}, {"jar", "sources"}, {"test-jar", "tests"}, {"pom", null}, {"jar", "linux-x86_64"}
+    };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void checkEnabled() {
+        assumeTrue(Boolean.getBoolean(ENABLED));
+    }
+
+    @Test
+    public void testModelOutputScalesLinearly() throws Exception {
+        checkScaling(false);
+    }
+
+    @Test
+    public void testStreamingOutputScalesLinearly() throws Exception {
+        checkScaling(true);
+    }
+
+    private void checkScaling(boolean streamOutput) throws Exception {
+        // warms up the JIT compiler
+        measure(createArtifacts(SMALL), streamOutput);
+
+        Cost small = measure(createArtifacts(SMALL), streamOutput);
+        Cost large = measure(createArtifacts(LARGE), streamOutput);
+
+        for (Cost cost : Arrays.asList(small, large)) {
+            assertTrue(cost.toString(), cost.nanosPerArtifact() <= NANOS_PER_ARTIFACT);
+            assertTrue(cost.toString(), cost.bytesPerArtifact() < 0 || cost.bytesPerArtifact() <= BYTES_PER_ARTIFACT);
+        }
+        assertTrue("Time per artifact grew from " + small + " to " + large,
+                large.nanosPerArtifact() <= MAX_TIME_GROWTH * small.nanosPerArtifact());
+        if (small.bytesPerArtifact() >= 0) {
+            assertTrue("Allocations per artifact grew from " + small + " to " + large,
+                    large.bytesPerArtifact() <= MAX_ALLOCATION_GROWTH * small.bytesPerArtifact());
+        }
+    }
+
+    private Cost measure(Set<Artifact> artifacts, boolean streamOutput) throws Exception {
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.newFolder().getAbsolutePath());
+        mojo.mavenProject.setArtifacts(artifacts);
+        mojo.bomGroupId = "org.perf";
+        mojo.bomArtifactId = "perf-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.usePropertiesForVersion = true;
+        mojo.streamOutput = streamOutput;
+        mojo.dependencyExclusions = Arrays.asList(
+                new DependencyExclusion("org.perf.group7", "*"),
+                new DependencyExclusion("org.perf.group1*", "artifact-1*"),
+                new DependencyExclusion("*", "excluded-*"));
+        List<BomExclusion> exclusions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            BomExclusion exclusion = new BomExclusion();
+            exclusion.setDependencyGroupId("org.perf.group" + i);
+            exclusion.setDependencyArtifactId(i % 2 == 0 ? "*" : "artifact-" + i);
+            exclusion.setExclusionGroupId("commons-logging");
+            exclusion.setExclusionArtifactId("commons-logging");
+            exclusions.add(exclusion);
+        }
+        mojo.exclusions = exclusions;
+
+        System.gc();
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        mojo.execute();
+        long nanos = System.nanoTime() - start;
+        return new Cost(artifacts.size(), nanos, allocated < 0 ? -1 : allocatedBytes() - allocated);
+    }
+
+    /**
+     * Creates the artifacts of groups of 20 artifacts.  Most groups share one
+     * version, every fifth has an artifact of another version, and each
+     * artifact comes in one to five types and classifiers.
+     */
+    private static Set<Artifact> createArtifacts(int count) {
+        Set<Artifact> artifacts = new HashSet<>(count * 2);
+        int index = 0;
+        while (artifacts.size() < count) {
+            int group = index / 20;
+            String groupId = "org.perf.group" + group;
+            String artifactId = (index % 97 == 0 ? "excluded-" : "artifact-") + index;
+            String version = group % 5 == 0 && index % 20 == 3 ? "2." + group : "1." + group;
+            for (int variant = 0; variant <= index % VARIANTS.length && artifacts.size() < count; variant++) {
+                artifacts.add(new DefaultArtifact(groupId, artifactId, version, "compile", VARIANTS[variant][0],
+                        VARIANTS[variant][1], new DefaultArtifactHandler(VARIANTS[variant][0])));
+            }
+            index++;
+        }
+        return artifacts;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotSpotThreads = (com.sun.management.ThreadMXBean) threads;
+            if (hotSpotThreads.isThreadAllocatedMemorySupported() && hotSpotThreads.isThreadAllocatedMemoryEnabled()) {
+                return hotSpotThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static final class Cost {
+
+        private final int artifacts;
+
+        private final long nanos;
+
+        private final long bytes;
+
+        private Cost(int artifacts, long nanos, long bytes) {
+            this.artifacts = artifacts;
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+
+        private double nanosPerArtifact() {
+            return (double) nanos / artifacts;
+        }
+
+        private double bytesPerArtifact() {
+            return bytes < 0 ? -1 : (double) bytes / artifacts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d ms, %.0f ns and %.0f bytes per artifact", nanos / 1000000, nanosPerArtifact(),
+                    bytesPerArtifact());
+        }
+    }
+
+}
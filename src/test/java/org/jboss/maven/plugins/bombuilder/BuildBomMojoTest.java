@@ -1,24 +1,49 @@
 package org.jboss.maven.plugins.bombuilder;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Exclusion;
 import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 
 public class BuildBomMojoTest {
 
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private PomDependencyVersionsTransformer versionTransformer;
     @Mock
@@ -28,6 +53,7 @@ public class BuildBomMojoTest {
     @Before
     public void before() {
         initMocks(this);
+        when(versionTransformer.transformPomModel(any(Model.class), any(VersionPropertyPlan.class))).then(returnsFirstArg());
         mojo = createBuildBomMojo();
     }
     
@@ -35,7 +61,7 @@ public class BuildBomMojoTest {
     public void testDependencyVersionIsNotStoredInPropertiesByDefault() throws Exception {
         mojo.execute();
 
-        verify(versionTransformer, never()).transformPomModel(any(Model.class));
+        verify(versionTransformer, never()).transformPomModel(any(Model.class), any(VersionPropertyPlan.class));
     }
 
     @Test
@@ -44,12 +70,214 @@ public class BuildBomMojoTest {
 
         mojo.execute();
 
-        verify(versionTransformer, times(1)).transformPomModel(any(Model.class));
+        verify(versionTransformer, times(1)).transformPomModel(any(Model.class), any(VersionPropertyPlan.class));
+    }
+
+    @Test
+    public void testVersionPropertiesArePlannedOnceForBothFlags() throws Exception {
+        mojo = new BuildBomMojo(modelWriter, new PomDependencyVersionsTransformer());
+        mojo.mavenProject = createBuildBomMojo().mavenProject;
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "pom.xml";
+        mojo.addVersionProperties = true;
+        mojo.usePropertiesForVersion = true;
+        mojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(
+                createArtifact("org.hamcrest", "hamcrest-core"),
+                createArtifact("org.hamcrest", "hamcrest-library"))));
+
+        mojo.execute();
+
+        ArgumentCaptor<Model> model = ArgumentCaptor.forClass(Model.class);
+        verify(modelWriter).writeModel(model.capture(), any(File.class));
+        assertEquals(Arrays.<Object>asList("project.build.sourceEncoding", "version.org.hamcrest"),
+                new ArrayList<>(model.getValue().getProperties().keySet()));
+        for (Dependency dependency : model.getValue().getDependencyManagement().getDependencies()) {
+            assertEquals("${version.org.hamcrest}", dependency.getVersion());
+        }
+    }
+
+    @Test
+    public void testUpToDateBomIsNotGeneratedAgain() throws Exception {
+        mojo.incremental = true;
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.getRoot().getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(createArtifact("junit", "junit"))));
+
+        mojo.execute();
+        verify(modelWriter, times(1)).writeModel(any(Model.class), any(File.class));
+
+        // the mocked writer writes no file
+        temporaryFolder.newFile(mojo.outputFilename);
+        temporaryFolder.newFile(mojo.outputFilename + ".sha1");
+        temporaryFolder.newFile(mojo.outputFilename + ".sha256");
+        mojo.execute();
+        verify(modelWriter, times(1)).writeModel(any(Model.class), any(File.class));
+
+        mojo.usePropertiesForVersion = true;
+        mojo.execute();
+        verify(modelWriter, times(2)).writeModel(any(Model.class), any(File.class));
+    }
+
+    @Test
+    public void testBomWithMissingOutputsIsGeneratedAgain() throws Exception {
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.getRoot().getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(createArtifact("junit", "junit"))));
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.incremental = true;
+        mojo.binaryIndex = true;
+        mojo.execute();
+
+        File index = new File(temporaryFolder.getRoot(), "bom-pom.idx");
+        File sha1 = new File(temporaryFolder.getRoot(), "bom-pom.xml.sha1");
+        assertTrue(index.delete());
+        assertTrue(sha1.delete());
+        mojo.execute();
+
+        assertTrue(index.isFile());
+        assertTrue(sha1.isFile());
+
+        mojo.metricsReport = true;
+        mojo.execute();
+
+        assertTrue(new File(temporaryFolder.getRoot(), "bom-pom-metrics.json").isFile());
+    }
+
+    @Test
+    public void testMetricsReportIsWrittenNextToTheBom() throws Exception {
+        mojo.metricsReport = true;
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.getRoot().getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(
+                createArtifact("junit", "junit"),
+                createArtifact("org.hamcrest", "hamcrest-core"))));
+        mojo.dependencyExclusions = Arrays.asList(createDependencyExclusion("junit", "*"));
+
+        mojo.execute();
+
+        String report = new String(Files.readAllBytes(new File(temporaryFolder.getRoot(), "bom-pom-metrics.json").toPath()),
+                StandardCharsets.UTF_8);
+        assertTrue(report, report.contains("\"bom\": \"org.test:test-bom:1.0\""));
+        assertTrue(report, report.contains("\"artifactsSeen\": 2,"));
+        assertTrue(report, report.contains("\"artifactsExcluded\": 1,"));
+        assertTrue(report, report.contains("\"dependenciesWritten\": 1,"));
+        assertTrue(report, report.contains("\"collect\": { \"wallTimeNanos\": "));
+    }
+
+    @Test
+    public void testDependencyManagementIsFlattenedIntoTheBom() throws Exception {
+        mojo.flattenDependencyManagement = true;
+        mojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(createArtifact("junit", "junit"))));
+        DependencyManagement dependencyManagement = new DependencyManagement();
+        dependencyManagement.addDependency(createManagedDependency("junit", "junit", "type", "classifier"));
+        Dependency managedDependency = createManagedDependency("org.hamcrest", "hamcrest-core", null, null);
+        Exclusion exclusion = new Exclusion();
+        exclusion.setGroupId("org.excluded");
+        exclusion.setArtifactId("excluded");
+        managedDependency.addExclusion(exclusion);
+        dependencyManagement.addDependency(managedDependency);
+        mojo.mavenProject.getModel().setDependencyManagement(dependencyManagement);
+
+        mojo.execute();
+
+        ArgumentCaptor<Model> model = ArgumentCaptor.forClass(Model.class);
+        verify(modelWriter).writeModel(model.capture(), any(File.class));
+        List<Dependency> dependencies = model.getValue().getDependencyManagement().getDependencies();
+        assertEquals(2, dependencies.size());
+        assertEquals("junit", dependencies.get(0).getArtifactId());
+        assertEquals("version", dependencies.get(0).getVersion());
+        assertEquals("hamcrest-core", dependencies.get(1).getArtifactId());
+        assertEquals("1.0", dependencies.get(1).getVersion());
+        assertEquals(1, dependencies.get(1).getExclusions().size());
+        assertEquals("org.excluded", dependencies.get(1).getExclusions().get(0).getGroupId());
+    }
+
+    @Test
+    public void testUnchangedBomIsNotRewritten() throws Exception {
+        BuildBomMojo.ModelWriter writer = new BuildBomMojo.ModelWriter();
+        Model model = new Model();
+        model.setGroupId("org.test");
+        File outputFile = new File(temporaryFolder.getRoot(), "bom-pom.xml");
+
+        assertTrue(writer.writeModel(model, outputFile));
+        assertFalse(writer.writeModel(model, outputFile));
+        model.setGroupId("org.test.other");
+        assertTrue(writer.writeModel(model, outputFile));
+        String[] files = temporaryFolder.getRoot().list();
+        Arrays.sort(files);
+        assertArrayEquals(new String[] {"bom-pom.xml", "bom-pom.xml.sha1", "bom-pom.xml.sha256"}, files);
+    }
+
+    @Test
+    public void testChecksumsAreWrittenNextToTheBom() throws Exception {
+        BuildBomMojo.ModelWriter writer = new BuildBomMojo.ModelWriter();
+        Model model = new Model();
+        model.setGroupId("org.test");
+        File outputFile = new File(temporaryFolder.getRoot(), "bom-pom.xml");
+
+        writer.writeModel(model, outputFile);
+        model.setGroupId("org.test.other");
+        writer.writeModel(model, outputFile);
+
+        byte[] bom = Files.readAllBytes(outputFile.toPath());
+        assertEquals(BomFingerprint.toHex(MessageDigest.getInstance("SHA-1").digest(bom)),
+                new String(Files.readAllBytes(new File(outputFile.getPath() + ".sha1").toPath()), StandardCharsets.UTF_8));
+        assertEquals(BomFingerprint.toHex(MessageDigest.getInstance("SHA-256").digest(bom)),
+                new String(Files.readAllBytes(new File(outputFile.getPath() + ".sha256").toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSeveralBomsAreGeneratedFromTheSameArtifacts() throws Exception {
+        mojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(
+                createArtifact("junit", "junit"),
+                createArtifact("org.hamcrest", "hamcrest-core"))));
+        BomDefinition fullBom = createBomDefinition("full-bom");
+        BomDefinition runtimeBom = createBomDefinition("runtime-bom");
+        runtimeBom.setDependencyExclusions(Arrays.asList(createDependencyExclusion("junit", "*")));
+        mojo.boms = Arrays.asList(fullBom, runtimeBom);
+
+        mojo.execute();
+
+        ArgumentCaptor<Model> models = ArgumentCaptor.forClass(Model.class);
+        ArgumentCaptor<File> files = ArgumentCaptor.forClass(File.class);
+        verify(modelWriter, times(2)).writeModel(models.capture(), files.capture());
+        for (int i = 0; i < 2; i++) {
+            Model model = models.getAllValues().get(i);
+            assertEquals(model.getArtifactId() + "-pom.xml", files.getAllValues().get(i).getName());
+            int expectedDependencies = model.getArtifactId().equals("full-bom") ? 2 : 1;
+            assertEquals(expectedDependencies, model.getDependencyManagement().getDependencies().size());
+        }
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testBomsMustHaveDistinctOutputFiles() throws Exception {
+        BomDefinition bom1 = createBomDefinition("bom");
+        BomDefinition bom2 = createBomDefinition("bom");
+        bom2.setBomVersion("2.0");
+        mojo.boms = Arrays.asList(bom1, bom2);
+
+        mojo.execute();
+    }
+
+    private BomDefinition createBomDefinition(String artifactId) {
+        BomDefinition definition = new BomDefinition();
+        definition.setBomGroupId("org.test");
+        definition.setBomArtifactId(artifactId);
+        definition.setBomVersion("1.0");
+        return definition;
     }
 
     private BuildBomMojo createBuildBomMojo() {
         BuildBomMojo mojo = new BuildBomMojo(modelWriter, versionTransformer);
         mojo.mavenProject = new MavenProject();
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
         mojo.mavenProject.getBuild().setOutputDirectory("target");
         mojo.outputFilename = "pom.xml";
         return mojo;
@@ -70,17 +298,95 @@ public class BuildBomMojoTest {
         assertArtifactMatchesExcludedDependency(false, "otherGroupId", "otherArtifactId", "groupId", "artifactId");
     }
 
+    @Test
+    public void testMatchesExcludedDependencyPattern() throws Exception {
+        assertArtifactMatchesExcludedDependency(true, "org.foo.bar", "artifactId", "org.foo.*", "artifactId");
+        assertArtifactMatchesExcludedDependency(true, "org.foo", "foo-core", "org.foo", "foo-*");
+        assertArtifactMatchesExcludedDependency(true, "org.foo", "foo-core-tests", "org.foo", "*-tests");
+        assertArtifactMatchesExcludedDependency(true, "org.foo.bar", "bar-api", "org.*.bar", "bar-?pi");
+        assertArtifactMatchesExcludedDependency(false, "org.foo", "artifactId", "org.foo.*", "artifactId");
+        assertArtifactMatchesExcludedDependency(false, "org.foobar", "artifactId", "org.foo.*", "artifactId");
+        assertArtifactMatchesExcludedDependency(false, "org.foo", "bar-core", "org.foo", "foo-*");
+        assertArtifactMatchesExcludedDependency(false, "org.foo.bar", "bar-impl", "org.*.bar", "bar-?pi");
+    }
+
+    @Test
+    public void testIsExcludedDependency() throws Exception {
+        BomDefinition definition = new BomDefinition();
+        definition.setDependencyExclusions(Arrays.asList(
+                createDependencyExclusion("junit", "junit"),
+                createDependencyExclusion("*", "annotations"),
+                createDependencyExclusion("org.hamcrest", "*"),
+                createDependencyExclusion("org.apache.*", "*-tests")));
+        BomGenerator generator = new BuildBomMojo().createGenerator(definition);
+
+        assertTrue(generator.isExcludedDependency(createArtifact("junit", "junit")));
+        assertTrue(generator.isExcludedDependency(createArtifact("com.google", "annotations")));
+        assertTrue(generator.isExcludedDependency(createArtifact("org.hamcrest", "hamcrest-core")));
+        assertTrue(generator.isExcludedDependency(createArtifact("org.apache.maven", "maven-core-tests")));
+        assertFalse(generator.isExcludedDependency(createArtifact("junit", "junit-dep")));
+        assertFalse(generator.isExcludedDependency(createArtifact("org.apache.maven", "maven-core")));
+    }
+
+    @Test
+    public void testExclusionsAreAddedToMatchingDependencies() throws Exception {
+        mojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(
+                createArtifact("org.springframework", "spring-core"),
+                createArtifact("org.springframework", "spring-beans"),
+                createArtifact("junit", "junit"))));
+        mojo.exclusions = Arrays.asList(
+                createBomExclusion("org.springframework", "*", "commons-logging", "commons-logging"),
+                createBomExclusion("junit", "junit", "org.hamcrest", "hamcrest-core"),
+                createBomExclusion(null, "junit", "org.hamcrest", "hamcrest-library"));
+
+        mojo.execute();
+
+        ArgumentCaptor<Model> model = ArgumentCaptor.forClass(Model.class);
+        verify(modelWriter).writeModel(model.capture(), any(File.class));
+        List<Dependency> dependencies = model.getValue().getDependencyManagement().getDependencies();
+        assertEquals(3, dependencies.size());
+        for (Dependency dependency : dependencies) {
+            assertEquals(1, dependency.getExclusions().size());
+            Exclusion exclusion = dependency.getExclusions().get(0);
+            if (dependency.getGroupId().equals("junit")) {
+                assertEquals("org.hamcrest:hamcrest-core", exclusion.getGroupId() + ":" + exclusion.getArtifactId());
+            } else {
+                assertEquals("commons-logging:commons-logging", exclusion.getGroupId() + ":" + exclusion.getArtifactId());
+            }
+        }
+    }
+
+    private BomExclusion createBomExclusion(String dependencyGroupId, String dependencyArtifactId, String exclusionGroupId, String exclusionArtifactId) {
+        BomExclusion exclusion = new BomExclusion();
+        exclusion.setDependencyGroupId(dependencyGroupId);
+        exclusion.setDependencyArtifactId(dependencyArtifactId);
+        exclusion.setExclusionGroupId(exclusionGroupId);
+        exclusion.setExclusionArtifactId(exclusionArtifactId);
+        return exclusion;
+    }
+
     private void assertArtifactMatchesExcludedDependency(boolean expected, String artifactGroupId, String artifactArtifactId, String dependencyGroupId, String dependencyArtifactId) {
-        Artifact artifact = createArtifact(artifactGroupId, artifactArtifactId);
-        DependencyExclusion exclusion = createDependencyExclusion(dependencyGroupId, dependencyArtifactId);
-        BuildBomMojo mojo = new BuildBomMojo();
-        assertEquals(expected, mojo.matchesExcludedDependency(artifact, exclusion));
+        DependencyExclusionMatcher matcher = DependencyExclusionMatcher.compile(
+                Collections.singletonList(createDependencyExclusion(dependencyGroupId, dependencyArtifactId)));
+        assertEquals(expected, matcher.findMatch(artifactGroupId, artifactArtifactId) != null);
     }
 
     private DependencyExclusion createDependencyExclusion(String groupId, String artifactId) {
         return new DependencyExclusion(groupId, artifactId);
     }
 
+    private Dependency createManagedDependency(String groupId, String artifactId, String type, String classifier) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1.0");
+        if (type != null) {
+            dependency.setType(type);
+        }
+        dependency.setClassifier(classifier);
+        return dependency;
+    }
+
     private Artifact createArtifact(String groupId, String artifactId) {
         return new DefaultArtifact(groupId, artifactId, "version", "scope", "type", "classifier", (ArtifactHandler)null);
     }
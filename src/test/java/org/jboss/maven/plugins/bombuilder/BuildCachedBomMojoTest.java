@@ -0,0 +1,126 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingResult;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class BuildCachedBomMojoTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private BuildBomMojo.ModelWriter modelWriter;
+    @Mock
+    private ProjectBuilder projectBuilder;
+    @Mock
+    private ProjectBuildingResult projectBuildingResult;
+    @Mock
+    private MavenSession session;
+    private BuildCachedBomMojo mojo;
+
+    @Before
+    public void before() throws Exception {
+        initMocks(this);
+        MavenProject resolvedProject = new MavenProject();
+        resolvedProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(
+                createArtifact("junit", "junit", "4.10", Artifact.SCOPE_COMPILE, null),
+                createArtifact("org.apache.maven", "maven-core", "3.0.4", Artifact.SCOPE_PROVIDED, "tests"),
+                createArtifact("org.mockito", "mockito-all", "1.10.19", Artifact.SCOPE_TEST, null))));
+        when(projectBuildingResult.getProject()).thenReturn(resolvedProject);
+        when(projectBuilder.build(any(File.class), any(ProjectBuildingRequest.class))).thenReturn(projectBuildingResult);
+        when(session.getProjectBuildingRequest()).thenReturn(new DefaultProjectBuildingRequest());
+
+        mojo = new BuildCachedBomMojo(modelWriter, new PomDependencyVersionsTransformer());
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.setFile(temporaryFolder.newFile("pom.xml"));
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.getRoot().getAbsolutePath());
+        mojo.mavenProject.getDependencies().add(createDependency("junit", "junit", "4.10"));
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.resolutionCacheDirectory = temporaryFolder.newFolder("cache");
+        mojo.projectBuilder = projectBuilder;
+        mojo.session = session;
+    }
+
+    @Test
+    public void testDependenciesAreResolvedOnlyWhenTheyChange() throws Exception {
+        mojo.execute();
+        verify(projectBuilder, times(1)).build(any(File.class), any(ProjectBuildingRequest.class));
+
+        mojo.execute();
+        verify(projectBuilder, times(1)).build(any(File.class), any(ProjectBuildingRequest.class));
+
+        mojo.mavenProject.getDependencies().add(createDependency("org.apache.maven", "maven-core", "3.0.4"));
+        mojo.execute();
+        verify(projectBuilder, times(2)).build(any(File.class), any(ProjectBuildingRequest.class));
+    }
+
+    @Test
+    public void testCachedArtifactsGiveTheSameBom() throws Exception {
+        mojo.execute();
+        mojo.execute();
+
+        ArgumentCaptor<Model> models = ArgumentCaptor.forClass(Model.class);
+        verify(modelWriter, times(2)).writeModel(models.capture(), any(File.class));
+        for (Model model : models.getAllValues()) {
+            assertEquals(2, model.getDependencyManagement().getDependencies().size());
+            Dependency dependency = model.getDependencyManagement().getDependencies().get(1);
+            assertEquals("org.apache.maven:maven-core:3.0.4:tests",
+                    dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + dependency.getVersion() + ":" + dependency.getClassifier());
+        }
+    }
+
+    @Test
+    public void testCachedArtifactsKeepTheirScope() throws Exception {
+        mojo.execute();
+
+        File[] cacheFiles = mojo.resolutionCacheDirectory.listFiles();
+        assertEquals(1, cacheFiles.length);
+        List<Artifact> artifacts = ArtifactCoordinates.readResolved(cacheFiles[0]);
+        assertEquals(2, artifacts.size());
+        assertEquals("junit:junit:jar:4.10:compile", artifacts.get(0).getId() + ":" + artifacts.get(0).getScope());
+        assertEquals("org.apache.maven:maven-core:jar:tests:3.0.4:provided",
+                artifacts.get(1).getId() + ":" + artifacts.get(1).getScope());
+    }
+
+    private Dependency createDependency(String groupId, String artifactId, String version) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(version);
+        return dependency;
+    }
+
+    private Artifact createArtifact(String groupId, String artifactId, String version, String scope, String classifier) {
+        return new DefaultArtifact(groupId, artifactId, version, scope, "jar", classifier, new DefaultArtifactHandler("jar"));
+    }
+}
@@ -0,0 +1,133 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BuildListBomMojoTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testListOutputIsIdenticalToProjectOutput() throws Exception {
+        File coordinateFile = writeCoordinates(
+                "# resolved dependencies",
+                "org.apache.maven:maven-model:3.0",
+                "org.apache.maven:maven-core:test-jar:tests:3.0.4",
+                "",
+                "org.apache.maven:maven-core:jar:3.0.4",
+                "org.hamcrest:hamcrest-core:1.1",
+                "org.jboss:jboss-parent:pom:19",
+                "junit:junit:4.10");
+        for (boolean usePropertiesForVersion : new boolean[] {false, true}) {
+            BuildListBomMojo listMojo = new BuildListBomMojo();
+            configure(listMojo, usePropertiesForVersion);
+            listMojo.coordinateFile = coordinateFile;
+            listMojo.execute();
+
+            BuildBomMojo projectMojo = new BuildBomMojo();
+            configure(projectMojo, usePropertiesForVersion);
+            projectMojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(
+                    createArtifact("org.jboss", "jboss-parent", "19", "pom", null),
+                    createArtifact("junit", "junit", "4.10", "jar", null),
+                    createArtifact("org.apache.maven", "maven-core", "3.0.4", "jar", null),
+                    createArtifact("org.apache.maven", "maven-core", "3.0.4", "test-jar", "tests"),
+                    createArtifact("org.apache.maven", "maven-model", "3.0", "jar", null),
+                    createArtifact("org.hamcrest", "hamcrest-core", "1.1", "jar", null))));
+            projectMojo.execute();
+
+            assertArrayEquals(Files.readAllBytes(getOutputFile(projectMojo).toPath()),
+                    Files.readAllBytes(getOutputFile(listMojo).toPath()));
+        }
+    }
+
+    @Test
+    public void testHighestVersionOfAnArtifactIsManaged() throws Exception {
+        BuildListBomMojo mojo = new BuildListBomMojo();
+        configure(mojo, false);
+        mojo.coordinateFile = writeCoordinates("junit:junit:4.9", "junit:junit:4.10", "junit:junit:3.8.1");
+
+        mojo.execute();
+
+        String bom = new String(Files.readAllBytes(getOutputFile(mojo).toPath()), StandardCharsets.UTF_8);
+        assertTrue(bom, bom.contains("<version>4.10</version>"));
+        assertFalse(bom, bom.contains("<version>4.9</version>"));
+        assertFalse(bom, bom.contains("<version>3.8.1</version>"));
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testInvalidLineFails() throws Exception {
+        BuildListBomMojo mojo = new BuildListBomMojo();
+        configure(mojo, false);
+        mojo.coordinateFile = writeCoordinates("junit:junit:4.10", "junit:junit");
+
+        mojo.execute();
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testFlattenDependencyManagementIsRejected() throws Exception {
+        BuildListBomMojo mojo = new BuildListBomMojo();
+        configure(mojo, false);
+        mojo.coordinateFile = writeCoordinates("junit:junit:4.10");
+        mojo.flattenDependencyManagement = true;
+
+        mojo.execute();
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testOtherArtifactOrderIsRejected() throws Exception {
+        BuildListBomMojo mojo = new BuildListBomMojo();
+        configure(mojo, false);
+        mojo.coordinateFile = writeCoordinates("junit:junit:4.10");
+        mojo.artifactOrder = "group-size";
+
+        mojo.execute();
+    }
+
+    private void configure(BuildBomMojo mojo, boolean usePropertiesForVersion) throws Exception {
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.newFolder().getAbsolutePath());
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.dependencyExclusions = Arrays.asList(new DependencyExclusion("org.hamcrest", "*"));
+        BomExclusion exclusion = new BomExclusion();
+        exclusion.setDependencyGroupId("junit");
+        exclusion.setDependencyArtifactId("junit");
+        exclusion.setExclusionGroupId("org.hamcrest");
+        exclusion.setExclusionArtifactId("hamcrest-core");
+        mojo.exclusions = Arrays.asList(exclusion);
+        mojo.usePropertiesForVersion = usePropertiesForVersion;
+    }
+
+    private File writeCoordinates(String... lines) throws Exception {
+        File coordinateFile = temporaryFolder.newFile();
+        Files.write(coordinateFile.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return coordinateFile;
+    }
+
+    private File getOutputFile(BuildBomMojo mojo) {
+        return new File(mojo.mavenProject.getBuild().getDirectory(), mojo.outputFilename);
+    }
+
+    private Artifact createArtifact(String groupId, String artifactId, String version, String type, String classifier) {
+        return new DefaultArtifact(groupId, artifactId, version, "compile", type, classifier, new DefaultArtifactHandler(type));
+    }
+}
@@ -0,0 +1,56 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CoordinatePoolTest {
+
+    @Test
+    public void testEqualValuesAreShared() {
+        CoordinatePool pool = new CoordinatePool();
+        String groupId = pool.share(new String("org.test"));
+
+        assertSame(groupId, pool.share(new String("org.test")));
+        assertSame(pool.key("org.test", "a"), pool.key(new String("org.test"), new String("a")));
+        assertSame(groupId, pool.key("org.test", "b").getGroupId());
+        assertNull(pool.share(null));
+        assertEquals(1, pool.stringCount());
+        assertEquals(2, pool.keyCount());
+    }
+
+    @Test
+    public void testDependenciesShareTheirRepeatedStrings() {
+        List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            artifacts.add(new DefaultArtifact(new String("org.test"), "artifact-" + i, new String("1.0"), "compile",
+                    new String("jar"), null, new DefaultArtifactHandler("jar")));
+        }
+        BomDefinition definition = new BomDefinition();
+        definition.setBomGroupId("org.test");
+        definition.setBomArtifactId("test-bom");
+        definition.setBomVersion("1.0");
+        BomGenerator generator = new BomGenerator(definition, null, null, null, new SystemStreamLog());
+
+        DependencyManagement dependencyManagement = generator.createDependencyManagement(artifacts);
+
+        Dependency first = dependencyManagement.getDependencies().get(0);
+        for (Dependency dependency : dependencyManagement.getDependencies()) {
+            assertSame(first.getGroupId(), dependency.getGroupId());
+            assertSame(first.getVersion(), dependency.getVersion());
+            assertSame(first.getType(), dependency.getType());
+        }
+    }
+
+}
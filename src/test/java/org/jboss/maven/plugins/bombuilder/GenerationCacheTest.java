@@ -0,0 +1,146 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GenerationCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() {
+        LruCache<String, String> cache = new LruCache<>(3, 10);
+        cache.put("a", "a", 1);
+        cache.put("b", "b", 1);
+        cache.put("c", "c", 1);
+        cache.get("a");
+        cache.put("d", "d", 1);
+
+        assertNull(cache.get("b"));
+        assertEquals("a", cache.get("a"));
+
+        cache.put("e", "e", 8);
+
+        assertEquals(3, cache.size());
+        assertEquals(10, cache.weight());
+        assertNull(cache.get("c"));
+        assertEquals("a", cache.get("a"));
+
+        cache.put("f", "f", 11);
+
+        assertNull(cache.get("f"));
+        assertEquals(10, cache.weight());
+    }
+
+    @Test
+    public void testEqualExclusionsAreCompiledOnce() {
+        GenerationCache cache = new GenerationCache(2, 2, 1024);
+        DependencyExclusionMatcher matcher = cache.getDependencyExclusionMatcher(
+                Arrays.asList(new DependencyExclusion("org.test", "*")));
+
+        assertSame(matcher, cache.getDependencyExclusionMatcher(Arrays.asList(new DependencyExclusion("org.test", "*"))));
+        assertNotSame(matcher, cache.getDependencyExclusionMatcher(Arrays.asList(new DependencyExclusion("org.other", "*"))));
+        assertSame(cache.getBomExclusionIndex(null, new SystemStreamLog()),
+                cache.getBomExclusionIndex(Collections.<BomExclusion>emptyList(), new SystemStreamLog()));
+    }
+
+    @Test
+    public void testPlanOfTheSameVersionsIsReused() {
+        GenerationCache cache = new GenerationCache(2, 2, 1024);
+        VersionPropertyPlanner planner = new VersionPropertyPlanner();
+        planner.add("junit", "junit", "4.10");
+        planner.add("org.hamcrest", "hamcrest-core", "1.1");
+        VersionPropertyPlan plan = cache.getVersionPropertyPlan(planner);
+
+        // another order, and a classifier which adds the same version again
+        VersionPropertyPlanner samePlanner = new VersionPropertyPlanner();
+        samePlanner.add("org.hamcrest", "hamcrest-core", "1.1");
+        samePlanner.add("junit", "junit", "4.10");
+        samePlanner.add("junit", "junit", "4.10");
+        assertSame(plan, cache.getVersionPropertyPlan(samePlanner));
+
+        VersionPropertyPlanner upgradedPlanner = new VersionPropertyPlanner();
+        upgradedPlanner.add("junit", "junit", "4.11");
+        upgradedPlanner.add("org.hamcrest", "hamcrest-core", "1.1");
+        VersionPropertyPlan upgradedPlan = cache.getVersionPropertyPlan(upgradedPlanner);
+        assertNotSame(plan, upgradedPlan);
+        assertEquals("4.11", upgradedPlan.getProperties().get("version.junit"));
+    }
+
+    @Test
+    public void testCleanedBomIsRestoredFromTheCache() throws Exception {
+        CountingModelWriter modelWriter = new CountingModelWriter();
+        File buildDirectory = temporaryFolder.newFolder();
+        BuildBomMojo mojo = new BuildBomMojo(modelWriter, new PomDependencyVersionsTransformer());
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(buildDirectory.getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(
+                createArtifact("junit", "junit", "4.10"),
+                createArtifact("org.hamcrest", "hamcrest-core", "1.1"))));
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.usePropertiesForVersion = true;
+        mojo.incremental = true;
+        mojo.daemonCache = true;
+        mojo.binaryIndex = true;
+        mojo.outputFormats = Arrays.asList("json");
+
+        mojo.execute();
+        File bom = new File(buildDirectory, "bom-pom.xml");
+        byte[] content = Files.readAllBytes(bom.toPath());
+        FileUtils.cleanDirectory(buildDirectory);
+        mojo.execute();
+
+        assertEquals(1, modelWriter.count);
+        assertArrayEquals(content, Files.readAllBytes(bom.toPath()));
+        for (String file : Arrays.asList("bom-pom.xml.sha1", "bom-pom.xml.sha256", "bom-pom.idx", "bom-pom.json")) {
+            assertTrue(file, new File(buildDirectory, file).isFile());
+        }
+
+        mojo.bomVersion = "1.1";
+        mojo.execute();
+
+        assertEquals(2, modelWriter.count);
+    }
+
+    private Artifact createArtifact(String groupId, String artifactId, String version) {
+        return new DefaultArtifact(groupId, artifactId, version, "compile", "jar", null, new DefaultArtifactHandler("jar"));
+    }
+
+    private static class CountingModelWriter extends BuildBomMojo.ModelWriter {
+
+        private int count;
+
+        @Override
+        boolean writeModel(Model pomModel, File outputFile, OutputFiles.Recorder recorder) throws MojoExecutionException {
+            count++;
+            return super.writeModel(pomModel, outputFile, recorder);
+        }
+    }
+
+}
@@ -1,10 +1,25 @@
 package org.jboss.maven.plugins.bombuilder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class OrderedPropertiesTest {
 
@@ -36,4 +51,148 @@ public class OrderedPropertiesTest {
 
         assertEquals(properties.size(), orderedProperties.keySet().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPutAllKeepsOrderOfSourceMap() throws Exception {
+        Map<String, String> versions = new LinkedHashMap<>();
+        versions.put("version.org.jboss", "1.0");
+        versions.put("version.junit", "4.10");
+
+        OrderedProperties properties = new OrderedProperties();
+        properties.setProperty("project.build.sourceEncoding", "UTF-8");
+        properties.putAll(versions);
+
+        assertEquals(Arrays.asList("project.build.sourceEncoding", "version.org.jboss", "version.junit"),
+                new ArrayList<>(properties.keySet()));
+        assertEquals("4.10", properties.getProperty("version.junit"));
+    }
+
+    @Test
+    public void testPutMovesExistingKeyToTheEnd() throws Exception {
+        OrderedProperties properties = new OrderedProperties();
+        properties.put("a", "1");
+        properties.put("b", "2");
+        properties.put("a", "3");
+
+        assertEquals(Arrays.asList("b", "a"), new ArrayList<>(properties.keySet()));
+        assertEquals(Arrays.asList("2", "3"), new ArrayList<>(properties.values()));
+        assertEquals(2, properties.size());
+    }
+
+    @Test
+    public void testViewsAreConsistent() throws Exception {
+        OrderedProperties properties = new OrderedProperties();
+        properties.put("c", "1");
+        properties.put("a", "2");
+        properties.put("b", "3");
+
+        List<Object> entryKeys = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            entryKeys.add(entry.getKey());
+        }
+        assertEquals(new ArrayList<>(properties.keySet()), entryKeys);
+        assertEquals(new ArrayList<>(properties.keySet()), new ArrayList<>(properties.stringPropertyNames()));
+        assertEquals(new ArrayList<>(properties.keySet()), Collections.list(properties.keys()));
+        assertSame(properties.keySet(), properties.keySet());
+        assertSame(properties.entrySet(), properties.entrySet());
+    }
+
+    @Test
+    public void testCloneIsIndependent() throws Exception {
+        OrderedProperties properties = new OrderedProperties();
+        properties.put("a", "1");
+
+        OrderedProperties clone = (OrderedProperties) properties.clone();
+        clone.put("b", "2");
+
+        assertEquals(1, properties.size());
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(clone.keySet()));
+        assertNull(properties.getProperty("b"));
+    }
+
+    @Test
+    public void testGetOrDefault() throws Exception {
+        OrderedProperties properties = new OrderedProperties();
+        properties.put("a", "1");
+
+        assertEquals("1", properties.getOrDefault("a", "2"));
+        assertEquals("2", properties.getOrDefault("b", "2"));
+    }
+
+    @Test
+    public void testPutIfAbsent() throws Exception {
+        OrderedProperties properties = new OrderedProperties();
+        properties.put("a", "1");
+
+        assertEquals("1", properties.putIfAbsent("a", "2"));
+        assertNull(properties.putIfAbsent("b", "3"));
+
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(properties.keySet()));
+        assertEquals(Arrays.asList("1", "3"), new ArrayList<>(properties.values()));
+    }
+
+    @Test
+    public void testForEachIteratesInOrderOfAdding() throws Exception {
+        OrderedProperties properties = new OrderedProperties();
+        properties.put("c", "1");
+        properties.put("a", "2");
+        properties.merge("c", "3", new BiFunction<Object, Object, Object>() {
+            @Override
+            public Object apply(Object oldValue, Object value) {
+                return oldValue + "," + value;
+            }
+        });
+
+        final List<Object> entries = new ArrayList<>();
+        properties.forEach(new BiConsumer<Object, Object>() {
+            @Override
+            public void accept(Object key, Object value) {
+                entries.add(key + "=" + value);
+            }
+        });
+
+        assertEquals(Arrays.asList("c=1,3", "a=2"), entries);
+    }
+
+    @Test
+    public void testSerializationKeepsTheEntries() throws Exception {
+        OrderedProperties properties = new OrderedProperties();
+        properties.put("c", "1");
+        properties.put("a", "2");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(properties);
+        }
+        OrderedProperties copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (OrderedProperties) in.readObject();
+        }
+
+        assertEquals(Arrays.asList("c", "a"), new ArrayList<>(copy.keySet()));
+        assertEquals("2", copy.getProperty("a"));
+    }
+
+    @Test(timeout = 10000)
+    public void testPutScalesToManyProperties() throws Exception {
+        int count = 100000;
+        OrderedProperties properties = new OrderedProperties();
+        for (int i = 0; i < count; i++) {
+            properties.setProperty("version." + i, "1.0");
+        }
+        for (int i = 0; i < count; i += 2) {
+            properties.setProperty("version." + i, "2.0");
+        }
+
+        assertEquals(count, properties.size());
+        Iterator<Object> keys = properties.keySet().iterator();
+        for (int i = 1; i < count; i += 2) {
+            assertEquals("version." + i, keys.next());
+        }
+        for (int i = 0; i < count; i += 2) {
+            assertEquals("version." + i, keys.next());
+        }
+        assertEquals("2.0", properties.getProperty("version.0"));
+        assertEquals("1.0", properties.getProperty("version.1"));
+    }
+}
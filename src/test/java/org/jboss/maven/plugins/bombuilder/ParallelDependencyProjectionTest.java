@@ -0,0 +1,96 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelDependencyProjectionTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testParallelOutputIsIdenticalToSerialOutput() throws Exception {
+        assertParallelOutputIsIdentical(false, false);
+        assertParallelOutputIsIdentical(false, true);
+    }
+
+    @Test
+    public void testParallelStreamingOutputIsIdenticalToSerialOutput() throws Exception {
+        assertParallelOutputIsIdentical(true, false);
+        assertParallelOutputIsIdentical(true, true);
+    }
+
+    @Test
+    public void testUnmeasuredAllocationsAreReportedAsNull() throws Exception {
+        File bom = generateBom(true, false, false);
+        String report = new String(Files.readAllBytes(new File(bom.getParentFile(), "bom-pom-metrics.json").toPath()),
+                StandardCharsets.UTF_8);
+
+        assertTrue(report, report.contains("\"allocatedBytes\": null"));
+        assertFalse(report, report.contains("-1"));
+    }
+
+    private void assertParallelOutputIsIdentical(boolean streamOutput, boolean usePropertiesForVersion) throws Exception {
+        File serialOutput = generateBom(false, streamOutput, usePropertiesForVersion);
+        File parallelOutput = generateBom(true, streamOutput, usePropertiesForVersion);
+
+        assertArrayEquals(Files.readAllBytes(serialOutput.toPath()), Files.readAllBytes(parallelOutput.toPath()));
+    }
+
+    private File generateBom(boolean parallelProjection, boolean streamOutput, boolean usePropertiesForVersion) throws Exception {
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.newFolder().getAbsolutePath());
+        Set<Artifact> artifacts = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            String groupId = "org.group" + (i % 37);
+            artifacts.add(createArtifact(groupId, "artifact-" + i, "1." + (i % 5), "jar", null));
+            if (i % 10 == 0) {
+                artifacts.add(createArtifact(groupId, "artifact-" + i, "1." + (i % 5), "test-jar", "tests"));
+            }
+        }
+        mojo.mavenProject.setArtifacts(artifacts);
+        mojo.dependencyExclusions = Arrays.asList(new DependencyExclusion("org.group1*", "*"),
+                new DependencyExclusion("*", "artifact-*7"));
+        BomExclusion exclusion = new BomExclusion();
+        exclusion.setDependencyGroupId("org.group2");
+        exclusion.setDependencyArtifactId("*");
+        exclusion.setExclusionGroupId("org.hamcrest");
+        exclusion.setExclusionArtifactId("hamcrest-core");
+        mojo.exclusions = Arrays.asList(exclusion);
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.streamOutput = streamOutput;
+        mojo.usePropertiesForVersion = usePropertiesForVersion;
+        mojo.parallelProjection = parallelProjection;
+        mojo.parallelThreads = 4;
+        mojo.parallelThreshold = 50;
+        mojo.metricsReport = true;
+
+        mojo.execute();
+
+        return new File(mojo.mavenProject.getBuild().getDirectory(), mojo.outputFilename);
+    }
+
+    private Artifact createArtifact(String groupId, String artifactId, String version, String type, String classifier) {
+        return new DefaultArtifact(groupId, artifactId, version, "compile", type, classifier, new DefaultArtifactHandler(type));
+    }
+}
@@ -1,5 +1,9 @@
 package org.jboss.maven.plugins.bombuilder;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.DependencyManagement;
 import org.apache.maven.model.Model;
@@ -23,6 +27,20 @@ public class PomDependencyVersionsTransformerTest {
         assertEquals("${" + versionKey + "}", transformedModel.getDependencyManagement().getDependencies().get(0).getVersion());
     }
 
+    @Test
+    public void testPropertiesArePlannedWithTheGivenPool() throws Exception {
+        PomDependencyVersionsTransformer transformer = new PomDependencyVersionsTransformer();
+        CoordinatePool pool = new CoordinatePool();
+        Model pomModel = createPomModel();
+        addDependency(pomModel, createDependency("groupId", "artifactId1", "version"));
+        addDependency(pomModel, createDependency("groupId", "artifactId2", "version"));
+
+        Model transformedModel = transformer.transformPomModel(pomModel, false, pool);
+
+        assertEquals(2, pool.keyCount());
+        assertEquals("${version.groupId}", transformedModel.getDependencyManagement().getDependencies().get(1).getVersion());
+    }
+
     @Test
     public void testDependencyVersionIsSpecifiedByPropertyWithKeyIncludingArtifactId() throws Exception {
         PomDependencyVersionsTransformer transformer = new PomDependencyVersionsTransformer();
@@ -44,6 +62,95 @@ public class PomDependencyVersionsTransformerTest {
         assertEquals("${" + versionKey2 + "}", transformedModel.getDependencyManagement().getDependencies().get(1).getVersion());
     }
 
+    @Test
+    public void testDependenciesOfGroupWithSameVersionShareProperty() throws Exception {
+        PomDependencyVersionsTransformer transformer = new PomDependencyVersionsTransformer();
+        Model pomModel = createPomModel();
+        addDependency(pomModel, createDependency("org.foo", "foo-b", "1.0"));
+        addDependency(pomModel, createDependency("org.bar", "bar", "2.0"));
+        addDependency(pomModel, createDependency("org.foo", "foo-a", "1.0"));
+        addDependency(pomModel, createDependency("org.baz", "baz-b", "3.1"));
+        addDependency(pomModel, createDependency("org.baz", "baz-a", "3.0"));
+
+        Model transformedModel = transformer.transformPomModel(pomModel);
+
+        assertEquals(Arrays.asList("version.org.bar", "version.org.baz.baz-a", "version.org.baz.baz-b", "version.org.foo"),
+                new ArrayList<>(transformedModel.getProperties().keySet()));
+        List<Dependency> dependencies = transformedModel.getDependencyManagement().getDependencies();
+        assertEquals("${version.org.foo}", dependencies.get(0).getVersion());
+        assertEquals("${version.org.bar}", dependencies.get(1).getVersion());
+        assertEquals("${version.org.foo}", dependencies.get(2).getVersion());
+        assertEquals("${version.org.baz.baz-b}", dependencies.get(3).getVersion());
+        assertEquals("${version.org.baz.baz-a}", dependencies.get(4).getVersion());
+        assertEquals("3.0", transformedModel.getProperties().get("version.org.baz.baz-a"));
+    }
+
+    @Test
+    public void testGroupsWithSameVersionUnderCommonPrefixShareProperty() throws Exception {
+        PomDependencyVersionsTransformer transformer = new PomDependencyVersionsTransformer();
+        Model pomModel = createPomModel();
+        addDependency(pomModel, createDependency("io.netty", "netty-codec", "4.1.0"));
+        addDependency(pomModel, createDependency("io.netty.incubator", "netty-incubator-codec", "4.1.0"));
+        addDependency(pomModel, createDependency("io.netty", "netty-common", "4.1.0"));
+        addDependency(pomModel, createDependency("org.foo.a", "a", "1.0"));
+        addDependency(pomModel, createDependency("org.foo.b", "b", "1.0"));
+        addDependency(pomModel, createDependency("org.foo.c", "c", "2.0"));
+        addDependency(pomModel, createDependency("io", "io", "4.0.0"));
+        addDependency(pomModel, createDependency("org.foo", "foo", "1.0"));
+
+        Model transformedModel = transformer.transformPomModel(pomModel, true);
+
+        assertEquals(Arrays.asList("version.io", "version.io.netty", "version.org.foo", "version.org.foo.c"),
+                new ArrayList<>(transformedModel.getProperties().keySet()));
+        List<Dependency> dependencies = transformedModel.getDependencyManagement().getDependencies();
+        assertEquals("${version.io.netty}", dependencies.get(0).getVersion());
+        assertEquals("${version.io.netty}", dependencies.get(1).getVersion());
+        assertEquals("${version.io.netty}", dependencies.get(2).getVersion());
+        assertEquals("${version.org.foo}", dependencies.get(3).getVersion());
+        assertEquals("${version.org.foo}", dependencies.get(4).getVersion());
+        assertEquals("${version.org.foo.c}", dependencies.get(5).getVersion());
+        assertEquals("${version.io}", dependencies.get(6).getVersion());
+        assertEquals("${version.org.foo}", dependencies.get(7).getVersion());
+        assertEquals("1.0", transformedModel.getProperties().get("version.org.foo"));
+        assertEquals("4.1.0", transformedModel.getProperties().get("version.io.netty"));
+    }
+
+    @Test
+    public void testGroupsWithoutCommonGroupIdDoNotShareProperty() throws Exception {
+        PomDependencyVersionsTransformer transformer = new PomDependencyVersionsTransformer();
+        Model pomModel = createPomModel();
+        addDependency(pomModel, createDependency("org.apache.foo", "foo", "1.0"));
+        addDependency(pomModel, createDependency("org.apache.bar", "bar", "1.0"));
+
+        Model transformedModel = transformer.transformPomModel(pomModel, true);
+
+        assertEquals(Arrays.asList("version.org.apache.bar", "version.org.apache.foo"),
+                new ArrayList<>(transformedModel.getProperties().keySet()));
+        List<Dependency> dependencies = transformedModel.getDependencyManagement().getDependencies();
+        assertEquals("${version.org.apache.foo}", dependencies.get(0).getVersion());
+        assertEquals("${version.org.apache.bar}", dependencies.get(1).getVersion());
+    }
+
+    @Test
+    public void testGroupsDoNotSharePropertyOfGroupWithOtherVersion() throws Exception {
+        PomDependencyVersionsTransformer transformer = new PomDependencyVersionsTransformer();
+        Model pomModel = createPomModel();
+        addDependency(pomModel, createDependency("org.foo", "foo", "2.0"));
+        addDependency(pomModel, createDependency("org.foo.a", "a", "1.0"));
+        addDependency(pomModel, createDependency("org.foo.b", "b", "1.0"));
+        addDependency(pomModel, createDependency("org.bar.a", "a", "1.0"));
+        addDependency(pomModel, createDependency("org.bar.b", "b", "1.0"));
+        addDependency(pomModel, createDependency("org.bar.c", "c", "2.0"));
+        addDependency(pomModel, createDependency("org.bar.d", "d", "2.0"));
+
+        Model transformedModel = transformer.transformPomModel(pomModel, true);
+
+        assertEquals(Arrays.asList("version.org.bar.a", "version.org.bar.b", "version.org.bar.c", "version.org.bar.d",
+                        "version.org.foo", "version.org.foo.a", "version.org.foo.b"),
+                new ArrayList<>(transformedModel.getProperties().keySet()));
+        assertEquals("2.0", transformedModel.getProperties().get("version.org.foo"));
+    }
+
     // FIXME one groupId with same versions, but configuration requires property for given artifactId
 
     private String createKey(Dependency dependency) {
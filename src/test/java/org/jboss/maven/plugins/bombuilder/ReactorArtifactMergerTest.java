@@ -0,0 +1,137 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReactorArtifactMergerTest {
+
+    @Test
+    public void testHighestVersionWins() throws Exception {
+        ReactorArtifactMerger merger = merge(ReactorArtifactMerger.ConflictPolicy.HIGHEST, 1,
+                Arrays.asList(createArtifact("org.foo", "foo", "1.9")),
+                Arrays.asList(createArtifact("org.foo", "foo", "1.10")),
+                Arrays.asList(createArtifact("org.foo", "foo", "1.2")));
+
+        assertEquals("[org.foo:foo:jar:1.10]", versions(merger.getSortedArtifacts()));
+        assertTrue(merger.getConflicts().isEmpty());
+    }
+
+    @Test
+    public void testFirstVersionWins() throws Exception {
+        ReactorArtifactMerger merger = merge(ReactorArtifactMerger.ConflictPolicy.FIRST, 1,
+                Arrays.asList(createArtifact("org.foo", "foo", "1.9")),
+                Arrays.asList(createArtifact("org.foo", "foo", "1.10")));
+
+        assertEquals("[org.foo:foo:jar:1.9]", versions(merger.getSortedArtifacts()));
+    }
+
+    @Test
+    public void testConflictsAreReportedWithFailPolicy() throws Exception {
+        ReactorArtifactMerger merger = merge(ReactorArtifactMerger.ConflictPolicy.FAIL, 1,
+                Arrays.asList(createArtifact("org.foo", "foo", "1.0"), createArtifact("org.bar", "bar", "2.0")),
+                Arrays.asList(createArtifact("org.foo", "foo", "1.1"), createArtifact("org.bar", "bar", "2.0")));
+
+        assertEquals(Arrays.asList("org.foo:foo:jar is resolved to 1.0 in project0 and to 1.1 in project1"),
+                merger.getConflicts());
+    }
+
+    @Test(expected = MojoFailureException.class)
+    public void testConflictsFailTheBuildWithFailPolicy() throws Exception {
+        MavenProject project0 = createProject("project0", createArtifact("org.foo", "foo", "1.0"));
+        MavenProject project1 = createProject("project1", createArtifact("org.foo", "foo", "1.1"));
+        BuildReactorBomMojo mojo = new BuildReactorBomMojo();
+        mojo.mavenProject = project0;
+        mojo.reactorProjects = Arrays.asList(project0, project1);
+        mojo.versionConflictPolicy = "fail";
+
+        mojo.getSortedArtifacts();
+    }
+
+    @Test
+    public void testTypesAndClassifiersAreKeptApart() throws Exception {
+        ReactorArtifactMerger merger = merge(ReactorArtifactMerger.ConflictPolicy.FAIL, 1,
+                Arrays.asList(createArtifact("org.foo", "foo", "1.0")),
+                Arrays.asList(createArtifact("org.foo", "foo", "1.0", "test-jar", "tests"),
+                        createArtifact("org.foo", "foo", "1.0")));
+
+        assertEquals("[org.foo:foo:jar:1.0, org.foo:foo:test-jar:tests:1.0]", versions(merger.getSortedArtifacts()));
+        assertTrue(merger.getConflicts().isEmpty());
+    }
+
+    @Test
+    public void testParallelMergeMatchesSerialMerge() throws Exception {
+        List<List<Artifact>> projects = new ArrayList<>();
+        for (int project = 0; project < 50; project++) {
+            List<Artifact> artifacts = new ArrayList<>();
+            for (int artifact = 0; artifact < 200; artifact++) {
+                artifacts.add(createArtifact("org.group" + (artifact % 7), "artifact" + artifact,
+                        "1." + ((project * 31 + artifact) % 13)));
+            }
+            projects.add(artifacts);
+        }
+
+        for (ReactorArtifactMerger.ConflictPolicy policy : ReactorArtifactMerger.ConflictPolicy.values()) {
+            ReactorArtifactMerger serial = merge(policy, 1, projects);
+            ReactorArtifactMerger parallel = merge(policy, 8, projects);
+
+            assertEquals(200, parallel.size());
+            assertEquals(versions(serial.getSortedArtifacts()), versions(parallel.getSortedArtifacts()));
+        }
+    }
+
+    @SafeVarargs
+    private static ReactorArtifactMerger merge(ReactorArtifactMerger.ConflictPolicy policy, int threads,
+                                               List<Artifact>... projectArtifacts) throws InterruptedException {
+        return merge(policy, threads, Arrays.asList(projectArtifacts));
+    }
+
+    private static ReactorArtifactMerger merge(ReactorArtifactMerger.ConflictPolicy policy, int threads,
+                                               List<? extends Collection<Artifact>> projectArtifacts) throws InterruptedException {
+        List<String> projectIds = new ArrayList<>();
+        for (int i = 0; i < projectArtifacts.size(); i++) {
+            projectIds.add("project" + i);
+        }
+        ReactorArtifactMerger merger = new ReactorArtifactMerger(policy);
+        merger.addAll(projectIds, projectArtifacts, threads);
+        return merger;
+    }
+
+    private static MavenProject createProject(String artifactId, Artifact... artifacts) {
+        MavenProject project = new MavenProject();
+        project.setGroupId("org.test");
+        project.setArtifactId(artifactId);
+        project.setVersion("1.0");
+        project.setArtifacts(new HashSet<>(Arrays.asList(artifacts)));
+        return project;
+    }
+
+    private static String versions(List<Artifact> artifacts) {
+        List<String> ids = new ArrayList<>();
+        for (Artifact artifact : artifacts) {
+            ids.add(artifact.getId());
+        }
+        return ids.toString();
+    }
+
+    private static Artifact createArtifact(String groupId, String artifactId, String version) {
+        return createArtifact(groupId, artifactId, version, "jar", null);
+    }
+
+    private static Artifact createArtifact(String groupId, String artifactId, String version, String type, String classifier) {
+        return new DefaultArtifact(groupId, artifactId, version, "compile", type, classifier, new DefaultArtifactHandler(type));
+    }
+
+}
@@ -0,0 +1,142 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RepositoryVerifierTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testMissingFilesAreReportedInOrder() throws Exception {
+        File repository = temporaryFolder.newFolder();
+        createFiles(repository, "org/test/core/1.0", "core-1.0.pom", "core-1.0.jar", "core-1.0-tests.jar");
+        createFiles(repository, "org/test/api/1.0", "api-1.0.jar");
+        createFiles(repository, "org/test/parent/2.0", "parent-2.0.pom");
+        createFiles(repository, "org/test/snapshot/1.1-SNAPSHOT",
+                "snapshot-1.1-20240102.030405-7.pom", "snapshot-1.1-20240102.030405-7.jar");
+        RepositoryVerifier.Batch batch = new RepositoryVerifier.Batch();
+        batch.add("org.test", "api", "1.0", "jar", null);
+        batch.add("org.test", "core", "1.0", "jar", "");
+        batch.add("org.test", "core", "1.0", "test-jar", null);
+        batch.add("org.test", "core", "1.0", "jar", "sources");
+        batch.add("org.test", "missing", "3.0", null, null);
+        batch.add("org.test", "parent", "2.0", "pom", null);
+        batch.add("org.test", "snapshot", "1.1-SNAPSHOT", "jar", null);
+        batch.add("org.test", "snapshot", "1.1-SNAPSHOT", "jar", "sources");
+
+        RepositoryVerifier.Report report = new RepositoryVerifier(repository, 2).verify(batch);
+
+        assertEquals(8, report.getChecked());
+        assertEquals(Arrays.asList(
+                "org.test:api:jar:1.0 - org/test/api/1.0/api-1.0.pom",
+                "org.test:core:jar:sources:1.0 - org/test/core/1.0/core-1.0-sources.jar",
+                "org.test:missing:jar:3.0 - org/test/missing/3.0/[missing-3.0.pom, missing-3.0.jar]",
+                "org.test:snapshot:jar:sources:1.1-SNAPSHOT - org/test/snapshot/1.1-SNAPSHOT/snapshot-1.1-SNAPSHOT-sources.jar"),
+                report.getMissing());
+    }
+
+    @Test
+    public void testLargeBatchIsVerified() throws Exception {
+        File repository = temporaryFolder.newFolder();
+        RepositoryVerifier.Batch batch = new RepositoryVerifier.Batch();
+        for (int i = 0; i < 2000; i++) {
+            String artifactId = "artifact-" + i;
+            if (i % 200 != 0) {
+                createFiles(repository, "org/group" + (i % 50) + "/" + artifactId + "/1.0",
+                        artifactId + "-1.0.pom", artifactId + "-1.0.jar");
+            }
+            batch.add("org.group" + (i % 50), artifactId, "1.0", "jar", null);
+        }
+
+        RepositoryVerifier.Report report = new RepositoryVerifier(repository, 8).verify(batch);
+
+        assertEquals(2000, report.getChecked());
+        assertEquals(10, report.getMissing().size());
+        assertTrue(report.getMissing().get(0), report.getMissing().get(0).startsWith("org.group0:artifact-0:jar:1.0"));
+        assertTrue(report.getMissing().get(9), report.getMissing().get(9).startsWith("org.group0:artifact-1800:jar:1.0"));
+    }
+
+    @Test
+    public void testRepositoryUrl() {
+        File directory = temporaryFolder.getRoot();
+
+        assertEquals(directory, RepositoryVerifier.toDirectory(directory.toURI().toString()));
+        assertEquals(directory, RepositoryVerifier.toDirectory(directory.getPath()));
+        try {
+            RepositoryVerifier.toDirectory("https://repo.maven.apache.org/maven2");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testBuildFailsWithAllMissingDependencies() throws Exception {
+        File repository = temporaryFolder.newFolder();
+        createFiles(repository, "junit/junit/4.10", "junit-4.10.pom", "junit-4.10.jar");
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.newFolder().getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<>(Arrays.asList(
+                createArtifact("junit", "junit", "4.10"),
+                createArtifact("org.hamcrest", "hamcrest-core", "1.1"),
+                createArtifact("org.hamcrest", "hamcrest-library", "1.1"))));
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.incremental = true;
+        mojo.verifyRepository = repository.toURI().toString();
+
+        try {
+            mojo.execute();
+            fail();
+        } catch (MojoFailureException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("2 of 3 dependencies are missing from " + repository));
+            assertTrue(e.getMessage(), e.getMessage().contains("\n  org.hamcrest:hamcrest-core:jar:1.1 - "));
+            assertTrue(e.getMessage(), e.getMessage().contains("\n  org.hamcrest:hamcrest-library:jar:1.1 - "));
+        }
+
+        createFiles(repository, "org/hamcrest/hamcrest-core/1.1", "hamcrest-core-1.1.pom", "hamcrest-core-1.1.jar");
+        createFiles(repository, "org/hamcrest/hamcrest-library/1.1", "hamcrest-library-1.1.pom", "hamcrest-library-1.1.jar");
+        mojo.execute();
+
+        // the BOM is up to date, but the repository is checked again
+        assertTrue(new File(repository, "org/hamcrest/hamcrest-core/1.1/hamcrest-core-1.1.jar").delete());
+        try {
+            mojo.execute();
+            fail();
+        } catch (MojoFailureException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("1 of 3 dependencies are missing from " + repository));
+        }
+    }
+
+    private static void createFiles(File repository, String path, String... names) throws IOException {
+        File directory = new File(repository, path);
+        directory.mkdirs();
+        for (String name : names) {
+            new File(directory, name).createNewFile();
+        }
+    }
+
+    private Artifact createArtifact(String groupId, String artifactId, String version) {
+        return new DefaultArtifact(groupId, artifactId, version, "compile", "jar", null, new DefaultArtifactHandler("jar"));
+    }
+
+}
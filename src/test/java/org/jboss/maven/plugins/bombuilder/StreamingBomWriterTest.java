@@ -0,0 +1,76 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class StreamingBomWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testStreamingOutputIsIdenticalToModelOutput() throws Exception {
+        assertStreamingOutputIsIdentical(false, false);
+    }
+
+    @Test
+    public void testStreamingOutputWithVersionPropertiesIsIdenticalToModelOutput() throws Exception {
+        assertStreamingOutputIsIdentical(true, false);
+        assertStreamingOutputIsIdentical(false, true);
+        assertStreamingOutputIsIdentical(true, true);
+    }
+
+    private void assertStreamingOutputIsIdentical(boolean usePropertiesForVersion, boolean addVersionProperties) throws Exception {
+        File modelOutput = generateBom(false, usePropertiesForVersion, addVersionProperties);
+        File streamedOutput = generateBom(true, usePropertiesForVersion, addVersionProperties);
+
+        assertArrayEquals(Files.readAllBytes(modelOutput.toPath()), Files.readAllBytes(streamedOutput.toPath()));
+    }
+
+    private File generateBom(boolean streamOutput, boolean usePropertiesForVersion, boolean addVersionProperties) throws Exception {
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.newFolder().getAbsolutePath());
+        mojo.mavenProject.setArtifacts(new HashSet<Artifact>(Arrays.asList(
+                createArtifact("org.jboss", "jboss-parent", "19", "pom", null),
+                createArtifact("junit", "junit", "4.10", "jar", null),
+                createArtifact("org.apache.maven", "maven-core", "3.0.4", "jar", null),
+                createArtifact("org.apache.maven", "maven-core", "3.0.4", "test-jar", "tests"),
+                createArtifact("org.apache.maven", "maven-model", "3.0", "jar", null),
+                createArtifact("org.hamcrest", "hamcrest-core", "1.1", "jar", null))));
+        mojo.dependencyExclusions = Arrays.asList(new DependencyExclusion("org.hamcrest", "*"));
+        BomExclusion exclusion = new BomExclusion();
+        exclusion.setDependencyGroupId("junit");
+        exclusion.setDependencyArtifactId("junit");
+        exclusion.setExclusionGroupId("org.hamcrest");
+        exclusion.setExclusionArtifactId("hamcrest-core");
+        mojo.exclusions = Arrays.asList(exclusion);
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.streamOutput = streamOutput;
+        mojo.usePropertiesForVersion = usePropertiesForVersion;
+        mojo.addVersionProperties = addVersionProperties;
+
+        mojo.execute();
+
+        return new File(mojo.mavenProject.getBuild().getDirectory(), mojo.outputFilename);
+    }
+
+    private Artifact createArtifact(String groupId, String artifactId, String version, String type, String classifier) {
+        return new DefaultArtifact(groupId, artifactId, version, "compile", type, classifier, new DefaultArtifactHandler(type));
+    }
+}
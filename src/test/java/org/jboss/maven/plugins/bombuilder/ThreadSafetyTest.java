@@ -0,0 +1,188 @@
+package org.jboss.maven.plugins.bombuilder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the BOM generation of many projects at the same time, as a parallel
+ * Maven build does, and checks that every project gets the BOM of a serial
+ * build.
+ */
+public class ThreadSafetyTest {
+
+    private static final int THREADS = 8;
+
+    private static final int EXECUTIONS = 48;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test(timeout = 60000)
+    public void testConcurrentExecutionsProduceTheSerialBoms() throws Exception {
+        final List<byte[]> expected = new ArrayList<>();
+        for (int variant = 0; variant < 4; variant++) {
+            expected.add(Files.readAllBytes(execute(variant).toPath()));
+        }
+
+        List<Callable<Void>> executions = new ArrayList<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < EXECUTIONS; i++) {
+            final int variant = i % 4;
+            executions.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    File bom = execute(variant);
+                    assertArrayEquals(expected.get(variant), Files.readAllBytes(bom.toPath()));
+                    return null;
+                }
+            });
+        }
+        runConcurrently(executions, start);
+    }
+
+    @Test(timeout = 60000)
+    public void testTransformerIsSharedSafely() throws Exception {
+        final PomDependencyVersionsTransformer transformer = new PomDependencyVersionsTransformer();
+        final Model model = createModel(500);
+        final Model expected = transformer.transformPomModel(model);
+
+        List<Callable<Void>> executions = new ArrayList<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < EXECUTIONS; i++) {
+            executions.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    Model transformed = transformer.transformPomModel(model);
+                    assertEquals(new ArrayList<>(expected.getProperties().keySet()),
+                            new ArrayList<>(transformed.getProperties().keySet()));
+                    for (int i = 0; i < expected.getDependencyManagement().getDependencies().size(); i++) {
+                        assertEquals(expected.getDependencyManagement().getDependencies().get(i).getVersion(),
+                                transformed.getDependencyManagement().getDependencies().get(i).getVersion());
+                    }
+                    return null;
+                }
+            });
+        }
+        runConcurrently(executions, start);
+        assertEquals("1.0", model.getDependencyManagement().getDependencies().get(0).getVersion());
+    }
+
+    @Test(timeout = 60000)
+    public void testOrderedPropertiesKeepEveryPut() throws Exception {
+        final OrderedProperties properties = new OrderedProperties();
+        final int keysPerThread = 5000;
+
+        List<Callable<Void>> executions = new ArrayList<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int thread = 0; thread < THREADS; thread++) {
+            final String prefix = "thread" + thread + ".";
+            executions.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for (int i = 0; i < keysPerThread; i++) {
+                        properties.setProperty(prefix + i, String.valueOf(i));
+                        properties.getProperty(prefix + (i / 2));
+                    }
+                    return null;
+                }
+            });
+        }
+        runConcurrently(executions, start);
+
+        assertEquals(THREADS * keysPerThread, properties.size());
+        int[] next = new int[THREADS];
+        for (Object key : properties.keySet()) {
+            String[] parts = ((String) key).split("\\.");
+            int thread = Integer.parseInt(parts[0].substring("thread".length()));
+            assertEquals("keys of one thread keep their order", next[thread]++, Integer.parseInt(parts[1]));
+        }
+    }
+
+    private File execute(int variant) throws Exception {
+        BuildBomMojo mojo = new BuildBomMojo();
+        mojo.mavenProject = new MavenProject();
+        mojo.mavenProject.getBuild().setDirectory(temporaryFolder.newFolder().getAbsolutePath());
+        mojo.mavenProject.setArtifacts(createArtifacts(300));
+        mojo.bomGroupId = "org.test";
+        mojo.bomArtifactId = "test-bom";
+        mojo.bomVersion = "1.0";
+        mojo.outputFilename = "bom-pom.xml";
+        mojo.incremental = true;
+        mojo.dependencyExclusions = Arrays.asList(new DependencyExclusion("org.group1*", "*"));
+        mojo.usePropertiesForVersion = variant % 2 == 1;
+        mojo.streamOutput = variant >= 2;
+        mojo.execute();
+        return new File(mojo.mavenProject.getBuild().getDirectory(), mojo.outputFilename);
+    }
+
+    private static void runConcurrently(List<Callable<Void>> executions, CountDownLatch start) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (Callable<Void> execution : executions) {
+                results.add(executor.submit(execution));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static Set<Artifact> createArtifacts(int count) {
+        Set<Artifact> artifacts = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            artifacts.add(new DefaultArtifact("org.group" + (i % 23), "artifact-" + i, "1." + (i % 3), "compile", "jar",
+                    null, new DefaultArtifactHandler("jar")));
+        }
+        return artifacts;
+    }
+
+    private static Model createModel(int count) {
+        Model model = new Model();
+        model.setProperties(new OrderedProperties());
+        DependencyManagement dependencyManagement = new DependencyManagement();
+        for (int i = 0; i < count; i++) {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId("org.group" + (i % 23));
+            dependency.setArtifactId("artifact-" + i);
+            dependency.setVersion(i == 0 ? "1.0" : "1." + (i % 3));
+            dependencyManagement.addDependency(dependency);
+        }
+        model.setDependencyManagement(dependencyManagement);
+        return model;
+    }
+
+}